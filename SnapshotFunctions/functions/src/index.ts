@@ -1,15 +1,26 @@
 import {
   onDocumentCreated,
+  onDocumentDeleted,
+  onDocumentUpdated,
+  onDocumentWritten,
   FirestoreEvent,
 } from "firebase-functions/v2/firestore";
+import { onCall, HttpsError } from "firebase-functions/v2/https";
+import { onSchedule } from "firebase-functions/v2/scheduler";
 import { setGlobalOptions } from "firebase-functions/v2";
 import * as logger from "firebase-functions/logger";
 import * as admin from "firebase-admin";
-import { QueryDocumentSnapshot } from "firebase-admin/firestore";
+import { QueryDocumentSnapshot, WriteBatch } from "firebase-admin/firestore";
 import {
   Messaging,
-  Message,
+  TokenMessage,
 } from "firebase-admin/messaging";
+import {
+  FOLLOW_BACKFILL_LIMIT,
+  TIMELINES_COLLECTION,
+  TIMELINE_ENTRIES_COLLECTION,
+  seedTimeline,
+} from "./timelines";
 
 admin.initializeApp();
 
@@ -18,16 +29,130 @@ setGlobalOptions({ region: "asia-northeast3" });
 const db: admin.firestore.Firestore = admin.firestore();
 const messaging: Messaging = admin.messaging();
 
-export const sendPushOnNewNotification = onDocumentCreated(
-  "notifications/{notificationId}",
-  async (event: FirestoreEvent<QueryDocumentSnapshot | undefined, { notificationId: string }>) => {
-    const snapshot = event.data;
+// Firestore WriteBatch 최대 작업 수
+const BATCH_LIMIT = 500;
+// 좋아요 수 합산 대기열 (포스트 ID별 문서 1개)
+const LIKE_ROLLUPS_COLLECTION = "like_rollups";
+// rollUpPendingLikeCounts 1회 실행에서 처리할 최대 페이지 수 (페이지당 500개)
+const LIKE_ROLLUP_MAX_PAGES_PER_RUN = 20;
+// 좋아요 수 합산 시 동시에 처리할 포스트 수
+const LIKE_ROLLUP_CONCURRENCY = 20;
+// Firestore gRPC 상태 코드: 문서가 이미 존재함 (create 실패)
+const ALREADY_EXISTS = 6;
+// 대량 변경 시 동시에 커밋 중일 수 있는 최대 WriteBatch 수
+const BULK_MAX_IN_FLIGHT_BATCHES = 4;
+// 태그 구독자 조회 페이지 크기 (한 페이지 = 알림 WriteBatch 1개)
+const SUBSCRIBER_PAGE_SIZE = BATCH_LIMIT;
+// FCM sendEach 한 번에 보낼 수 있는 최대 메시지 수
+const FCM_SEND_LIMIT = 500;
+// 수신자별로 모아서 보낼 푸시 대기열
+const PUSH_OUTBOX_COLLECTION = "push_outbox";
+// 수신자별 마지막 푸시 시각과 대기 중인 푸시 여부 (수신자 ID별 문서 1개)
+const PUSH_RECIPIENTS_COLLECTION = "push_recipients";
+// 마지막 푸시 후 이 시간 안에 생긴 알림만 대기열에 모아 보냄 (그 외에는 바로 발송)
+const PUSH_COALESCE_WINDOW_MS = 60 * 1000;
+// flushPushOutbox 1회 실행에서 처리할 최대 페이지 수 (페이지당 500개)
+const OUTBOX_MAX_PAGES_PER_RUN = 20;
+// FCM 토큰 메모리 캐시 유지 시간
+const TOKEN_CACHE_TTL_MS = 10 * 60 * 1000;
 
-    if (!snapshot) {
-      logger.log("Document snapshot is undefined.");
-      return;
+// 함수 인스턴스 메모리에 보관하는 사용자별 FCM 토큰 (인스턴스가 재사용되는 동안 유지)
+const tokenCache = new Map<string, { tokens: string[]; expiresAt: number }>();
+
+/**
+ * 항목 목록을 500개 단위 WriteBatch로 나누어 순서대로 커밋
+ */
+async function commitInChunks<T>(
+  items: T[],
+  apply: (batch: WriteBatch, item: T) => void
+): Promise<void> {
+  for (let i = 0; i < items.length; i += BATCH_LIMIT) {
+    const batch = db.batch();
+    items.slice(i, i + BATCH_LIMIT).forEach((item) => apply(batch, item));
+    await batch.commit();
+  }
+}
+
+/**
+ * 쿼리 결과 전체를 500개 페이지 단위로 변경
+ * 문서 내용은 받지 않고(select) 참조만 읽으며, 커밋을 기다리는 동안 다음 페이지를 미리 읽음
+ * 변경으로 쿼리 결과에서 빠지는 문서(삭제, 필터 필드 갱신)도 커서로 이어서 처리
+ * @return 변경한 문서 수
+ */
+async function mutateQueryInPages(
+  query: admin.firestore.Query,
+  apply: (batch: WriteBatch, ref: admin.firestore.DocumentReference) => void
+): Promise<number> {
+  const pending: Promise<void>[] = [];
+  let failure: unknown;
+  let cursor: QueryDocumentSnapshot | undefined;
+  let count = 0;
+
+  while (failure === undefined) {
+    let pageQuery = query.select().limit(BATCH_LIMIT);
+    if (cursor) {
+      pageQuery = pageQuery.startAfter(cursor);
+    }
+    const page = await pageQuery.get();
+    if (page.empty) {
+      break;
     }
-    const notificationData = snapshot.data();
+
+    const batch = db.batch();
+    page.docs.forEach((doc) => apply(batch, doc.ref));
+    pending.push(batch.commit().then(() => undefined, (error) => {
+      failure = failure ?? error;
+    }));
+    count += page.size;
+    if (pending.length >= BULK_MAX_IN_FLIGHT_BATCHES) {
+      await pending.shift();
+    }
+
+    if (page.size < BATCH_LIMIT) {
+      break;
+    }
+    cursor = page.docs[page.size - 1];
+  }
+
+  await Promise.all(pending);
+  if (failure !== undefined) {
+    throw failure;
+  }
+  return count;
+}
+
+function timelineEntryRef(
+  timelineOwnerId: string,
+  postId: string
+): admin.firestore.DocumentReference {
+  return db.collection(TIMELINES_COLLECTION).doc(timelineOwnerId)
+    .collection(TIMELINE_ENTRIES_COLLECTION).doc(postId);
+}
+
+/**
+ * 작성자 본인과 팔로워 ID 목록 (중복 제거)
+ */
+async function getTimelineOwners(authorId: string): Promise<string[]> {
+  const authorDoc = await db.collection("users").doc(authorId).get();
+  const followers: string[] = (authorDoc.data()?.followers as string[] | undefined) || [];
+  return Array.from(new Set([authorId, ...followers]));
+}
+
+/**
+ * 새 알림(또는 묶음 알림에 새 이벤트가 누적된 경우)의 푸시 발송
+ * 수신자에게 대기 중인 푸시가 없고 최근 PUSH_COALESCE_WINDOW_MS 안에 보낸 푸시도 없으면 바로 발송하고,
+ * 그렇지 않으면(연속으로 알림이 쏟아지는 경우) 대기열(push_outbox)에 넣어 flushPushOutbox가 모아서 발송
+ * 좋아요/댓글/팔로우는 대상별 문서 하나에 count로 누적되므로 count가 늘어날 때마다 발송 대상
+ */
+export const sendPushOnNewNotification = onDocumentWritten(
+  "notifications/{notificationId}",
+  async (event) => {
+    const before = event.data?.before;
+    const after = event.data?.after;
+    if (!after || !after.exists) {
+      return; // 삭제
+    }
+    const notificationData = after.data();
 
     if (!notificationData) {
       logger.warn("Notification document data is empty.", { structuredData: true });
@@ -35,99 +160,611 @@ export const sendPushOnNewNotification = onDocumentCreated(
     }
 
     const userId: string = notificationData.userId;
-    const content: string =
-      notificationData.content || "새로운 알림이 도착했습니다."; // 큰따옴표로 변경 (lint --fix)
-    const notificationType: string =
-      notificationData.notificationType || "general"; // 큰따옴표로 변경 (lint --fix)
-    const targetId: string = notificationData.targetId || "";
-
     if (!userId) {
       logger.error("Missing userId in notification data:", notificationData);
       return;
     }
+    if (notificationData.pushHandled === true) {
+      return; // 태그 구독자 알림처럼 생성한 쪽에서 이미 일괄 발송한 알림
+    }
 
+    // 읽음 처리 등 이벤트가 늘지 않은 변경은 무시
+    const previousCount: number = before?.exists ? ((before.get("count") as number | undefined) || 1) : 0;
+    const count: number = (notificationData.count as number | undefined) || 1;
+    if (count <= previousCount) {
+      return;
+    }
+
+    const content = displayContent(notificationData);
+    const notificationType: string = notificationData.notificationType || "general";
+    const targetId: string = notificationData.targetId || "";
+    const recipientRef = db.collection(PUSH_RECIPIENTS_COLLECTION).doc(userId);
+    // 트랜잭션 없이 읽고 판단 (같은 수신자에게 알림이 몰려도 문서 잠금 경합이 없음)
+    // 동시에 도착한 첫 알림들이 함께 바로 발송되는 드문 중복은 허용
+    const recipient = await recipientRef.get();
+    const pending = recipient.get("pending") === true;
+    const lastPushAt = recipient.get("lastPushAt") as admin.firestore.Timestamp | undefined;
+    const recentlyPushed = lastPushAt !== undefined &&
+      Date.now() - lastPushAt.toMillis() < PUSH_COALESCE_WINDOW_MS;
+    if (pending || recentlyPushed) {
+      await db.collection(PUSH_OUTBOX_COLLECTION).doc().set({
+        userId: userId,
+        content: content,
+        notificationType: notificationType,
+        targetId: targetId,
+        enqueuedAt: admin.firestore.FieldValue.serverTimestamp(),
+      });
+      if (!pending) {
+        // 이미 대기 중으로 표시되어 있으면 다시 쓰지 않음 (몰리는 알림마다 같은 문서에 쓰지 않도록)
+        await recipientRef.set({ pending: true }, { merge: true });
+      }
+      return;
+    }
+    await recipientRef.set({
+      lastPushAt: admin.firestore.FieldValue.serverTimestamp(),
+    }, { merge: true });
+
+    const tokens = (await getTokensForUsers([userId])).get(userId) || [];
+    const messages = tokens.map((token) =>
+      buildPushMessage(token, userId, content, notificationType, targetId, 1));
+    await sendInChunks(messages, messages.map(() => userId));
+  }
+);
+
+/**
+ * 알림 표시 문구 (여러 이벤트가 묶인 경우 "OO님 외 N명이 ...", 앱의 Notification.getDisplayContent와 동일)
+ */
+function displayContent(data: admin.firestore.DocumentData): string {
+  const count: number = (data.count as number | undefined) || 1;
+  const content: string = data.content || "새로운 알림이 도착했습니다.";
+  if (count <= 1) {
+    return content;
+  }
+  const others = `${data.senderName}님 외 ${count - 1}명이 `;
+  switch (data.notificationType) {
+  case "like":
+    return others + "회원님의 게시물을 좋아합니다.";
+  case "comment":
+    return others + "회원님의 게시물에 댓글을 남겼습니다.";
+  case "follow":
+    return others + "회원님을 팔로우합니다.";
+  default:
+    return content;
+  }
+}
+
+/**
+ * 푸시 대기열을 수신자별로 묶어 발송
+ * 같은 주기 안에 쌓인 알림은 수신자당 푸시 1개로 합치고 ("... 외 N개의 새 알림"),
+ * 수신자의 모든 기기 토큰으로 sendEach를 500개씩 호출
+ */
+export const flushPushOutbox = onSchedule("every 1 minutes", async () => {
+  for (let pageCount = 0; pageCount < OUTBOX_MAX_PAGES_PER_RUN; pageCount++) {
+    const page = await db.collection(PUSH_OUTBOX_COLLECTION)
+      .orderBy("enqueuedAt")
+      .limit(BATCH_LIMIT)
+      .get();
+    if (page.empty) {
+      return;
+    }
+
+    // 수신자별로 묶기 (문서는 enqueuedAt 순이므로 마지막 항목이 최신 알림)
+    const byRecipient = new Map<string, QueryDocumentSnapshot[]>();
+    page.docs.forEach((doc) => {
+      const userId: string = doc.get("userId");
+      const entries = byRecipient.get(userId) || [];
+      entries.push(doc);
+      byRecipient.set(userId, entries);
+    });
+
+    const tokensByUser = await getTokensForUsers(Array.from(byRecipient.keys()));
+    const messages: TokenMessage[] = [];
+    const messageOwners: string[] = []; // messages[i]의 수신자 ID (실패한 토큰 정리용)
+    byRecipient.forEach((entries, userId) => {
+      const latest = entries[entries.length - 1];
+      const body = entries.length === 1 ?
+        latest.get("content") :
+        `${latest.get("content")} 외 ${entries.length - 1}개의 새 알림`;
+      (tokensByUser.get(userId) || []).forEach((token) => {
+        messages.push(buildPushMessage(token, userId, body,
+          latest.get("notificationType"), latest.get("targetId"), entries.length));
+        messageOwners.push(userId);
+      });
+    });
+
+    await sendInChunks(messages, messageOwners);
+    await commitInChunks(page.docs, (batch, doc) => batch.delete(doc.ref));
+    // 이번에 보낸 수신자는 대기 해제, 이후 알림은 다시 PUSH_COALESCE_WINDOW_MS 동안 모아서 발송
+    // (같은 수신자의 항목이 다음 페이지에 남아 있으면 그 페이지를 처리할 때 다시 갱신됨)
+    await commitInChunks(Array.from(byRecipient.keys()), (batch, userId) => {
+      batch.set(db.collection(PUSH_RECIPIENTS_COLLECTION).doc(userId), {
+        pending: false,
+        lastPushAt: admin.firestore.FieldValue.serverTimestamp(),
+      }, { merge: true });
+    });
     logger.info(
-      `Processing notification for user: ${userId}, Type: ${notificationType}` +
-      `, Content: ${content}`, // 큰따옴표로 변경 (lint --fix)
-      { structuredData: true }
+      `Flushed ${page.size} queued notifications as ${messages.length} pushes to ${byRecipient.size} users`
     );
 
-    try {
-      // 1. 수신자의 FCM 토큰 가져오기
-      const userTokenRef = db.collection("user_tokens").doc(userId);
-      const userTokenDoc = await userTokenRef.get();
+    if (page.size < BATCH_LIMIT) {
+      return;
+    }
+  }
+});
 
-      if (!userTokenDoc.exists) {
-        logger.warn(`FCM token document not found for user: ${userId}`, { userId });
-        return;
+function buildPushMessage(
+  token: string,
+  userId: string,
+  body: string,
+  notificationType: string,
+  targetId: string,
+  count: number
+): TokenMessage {
+  return {
+    token: token,
+    notification: {
+      title: "SnapShot",
+      body: body,
+    },
+    data: {
+      userId: userId,
+      notificationType: notificationType || "general",
+      targetId: targetId || "",
+      count: String(count),
+      click_action: "FLUTTER_NOTIFICATION_CLICK",
+    },
+    android: {
+      priority: "high",
+      ttl: 60 * 60 * 24 * 1000,
+      collapseKey: "snapshot_notifications", // 기기에서도 이전 푸시를 대체
+    },
+  };
+}
+
+/**
+ * 수신자들의 FCM 토큰 조회 (인스턴스 메모리 캐시 우선, 없으면 getAll 한 번으로 조회)
+ * user_tokens/{userId}.tokens 배열(기기별 토큰)과 예전 단일 token 필드를 모두 지원
+ */
+async function getTokensForUsers(userIds: string[]): Promise<Map<string, string[]>> {
+  const now = Date.now();
+  const result = new Map<string, string[]>();
+  const misses: string[] = [];
+  userIds.forEach((userId) => {
+    const cached = tokenCache.get(userId);
+    if (cached && cached.expiresAt > now) {
+      result.set(userId, cached.tokens);
+    } else {
+      misses.push(userId);
+    }
+  });
+
+  if (misses.length > 0) {
+    const docs = await db.getAll(...misses.map((userId) => db.collection("user_tokens").doc(userId)));
+    docs.forEach((doc) => {
+      const tokens = new Set<string>((doc.get("tokens") as string[] | undefined) || []);
+      const legacyToken: string | undefined = doc.get("token");
+      if (legacyToken) {
+        tokens.add(legacyToken);
       }
+      const list = Array.from(tokens);
+      tokenCache.set(doc.id, { tokens: list, expiresAt: now + TOKEN_CACHE_TTL_MS });
+      result.set(doc.id, list);
+    });
+  }
+  return result;
+}
 
-      const tokenData = userTokenDoc.data();
-      if (!tokenData || !tokenData.token || tokenData.token === "") {
-        logger.warn(
-          `FCM token value is missing or empty for user: ${userId}`, // 큰따옴표로 변경 (lint --fix)
-          { userId }
-        );
-        return;
+/**
+ * sendEach를 500개씩 호출하고, 만료/해지된 토큰은 캐시와 user_tokens에서 제거
+ * (tokens 배열뿐 아니라 같은 값의 예전 단일 token 필드도 삭제)
+ */
+async function sendInChunks(messages: TokenMessage[], messageOwners: string[]): Promise<void> {
+  for (let i = 0; i < messages.length; i += FCM_SEND_LIMIT) {
+    const chunk = messages.slice(i, i + FCM_SEND_LIMIT);
+    const response = await messaging.sendEach(chunk);
+    if (response.failureCount === 0) {
+      continue;
+    }
+
+    const invalidTokensByUser = new Map<string, string[]>();
+    response.responses.forEach((sendResponse, index) => {
+      const errorCode = sendResponse.error?.code;
+      if (
+        errorCode === "messaging/invalid-registration-token" ||
+        errorCode === "messaging/registration-token-not-registered"
+      ) {
+        const userId = messageOwners[i + index];
+        const tokens = invalidTokensByUser.get(userId) || [];
+        tokens.push(chunk[index].token);
+        invalidTokensByUser.set(userId, tokens);
       }
-      const userFcmToken: string = tokenData.token;
-      logger.info(`Found FCM token for user ${userId}`, { userId });
-
-      // 2. FCM 메시지 구성
-      const message: Message = {
-        token: userFcmToken,
-        notification: {
-          title: "SnapShot",
-          body: content,
-        },
-        data: {
-          userId: userId,
-          notificationType: notificationType,
-          targetId: targetId,
-          click_action: "FLUTTER_NOTIFICATION_CLICK",
-        },
-        android: {
-          priority: "high",
-          ttl: 60 * 60 * 24 * 1000,
-        },
-      };
+    });
+    await Promise.all(Array.from(invalidTokensByUser.entries()).map(([userId, tokens]) => {
+      tokenCache.delete(userId);
+      return removeInvalidTokens(userId, tokens);
+    }));
+    logger.warn(`${response.failureCount} of ${chunk.length} pushes failed`);
+  }
+}
+
+/**
+ * user_tokens/{userId}에서 실패한 토큰 제거
+ * 예전 단일 token 필드는 그 값이 실패한 토큰일 때만 삭제 (그 사이 새 토큰으로 바뀌었으면 유지)
+ */
+async function removeInvalidTokens(userId: string, tokens: string[]): Promise<void> {
+  const tokenRef = db.collection("user_tokens").doc(userId);
+  await db.runTransaction(async (transaction) => {
+    const tokenDoc = await transaction.get(tokenRef);
+    if (!tokenDoc.exists) {
+      return;
+    }
+    const update: { [field: string]: admin.firestore.FieldValue } = {
+      tokens: admin.firestore.FieldValue.arrayRemove(...tokens),
+    };
+    if (tokens.includes(tokenDoc.get("token"))) {
+      update.token = admin.firestore.FieldValue.delete();
+    }
+    transaction.update(tokenRef, update);
+  });
+}
+
+/**
+ * 새 포스트를 작성자 본인과 모든 팔로워의 타임라인에 추가 (fan-out-on-write)
+ * 홈 피드는 whereIn 없이 timelines/{userId}/entries 범위 조회 한 번으로 끝남
+ */
+export const fanOutPostToTimelines = onDocumentCreated(
+  "posts/{postId}",
+  async (event: FirestoreEvent<QueryDocumentSnapshot | undefined, { postId: string }>) => {
+    const snapshot = event.data;
+    if (!snapshot) {
+      logger.log("Post snapshot is undefined.");
+      return;
+    }
+
+    const post = snapshot.data();
+    const postId = event.params.postId;
+    const authorId: string | undefined = post.userId;
+    if (!authorId) {
+      logger.error("Missing userId in post data:", { postId });
+      return;
+    }
+
+    const entry = {
+      postId: postId,
+      userId: authorId,
+      creationDate: post.creationDate || admin.firestore.FieldValue.serverTimestamp(),
+    };
 
+    const owners = await getTimelineOwners(authorId);
+    await commitInChunks(owners, (batch, ownerId) => {
+      batch.set(timelineEntryRef(ownerId, postId), entry);
+    });
+    logger.info(`Fanned out post ${postId} to ${owners.length} timelines`, { postId, authorId });
+  }
+);
 
-      // 4. 메시지 발송
-      logger.info(`Sending FCM message for user ${userId}`, { userId });
-      const response = await messaging.send(message);
-      logger.info("FCM send response (Message ID):", { response, userId });
+/**
+ * 포스트 삭제 시 작성자와 팔로워 타임라인에서 항목 제거
+ */
+export const removePostFromTimelines = onDocumentDeleted(
+  "posts/{postId}",
+  async (event: FirestoreEvent<QueryDocumentSnapshot | undefined, { postId: string }>) => {
+    const snapshot = event.data;
+    const authorId: string | undefined = snapshot?.data()?.userId;
+    const postId = event.params.postId;
+    if (!authorId) {
+      logger.warn("Deleted post has no userId; timelines left as is.", { postId });
+      return;
+    }
 
-      // 5. 발송 결과 처리
-      logger.info(`Message send attempt finished for user ${userId}`, { userId });
+    const owners = await getTimelineOwners(authorId);
+    await commitInChunks(owners, (batch, ownerId) => {
+      batch.delete(timelineEntryRef(ownerId, postId));
+    });
+  }
+);
 
+/**
+ * 팔로잉 목록이 바뀌면 타임라인 보정
+ * - 새로 팔로우: 상대방의 최근 포스트를 타임라인에 채움
+ * - 언팔로우: 상대방의 포스트를 타임라인에서 제거
+ */
+export const syncTimelineOnFollowChange = onDocumentUpdated(
+  "users/{userId}",
+  async (event) => {
+    const before: string[] = (event.data?.before.data()?.following as string[] | undefined) || [];
+    const after: string[] = (event.data?.after.data()?.following as string[] | undefined) || [];
+    const userId = event.params.userId;
+
+    const beforeSet = new Set(before);
+    const afterSet = new Set(after);
+    const followed = after.filter((id) => !beforeSet.has(id));
+    const unfollowed = before.filter((id) => !afterSet.has(id));
+    if (followed.length === 0 && unfollowed.length === 0) {
       return;
+    }
+
+    for (const authorId of followed) {
+      const recentPosts = await db.collection("posts")
+        .where("userId", "==", authorId)
+        .orderBy("creationDate", "desc")
+        .limit(FOLLOW_BACKFILL_LIMIT)
+        .get();
+      await commitInChunks(recentPosts.docs, (batch, postDoc) => {
+        batch.set(timelineEntryRef(userId, postDoc.id), {
+          postId: postDoc.id,
+          userId: authorId,
+          creationDate: postDoc.get("creationDate"),
+        });
+      });
+    }
+
+    for (const authorId of unfollowed) {
+      if (authorId === userId) {
+        continue; // 본인 포스트는 항상 유지
+      }
+      const entries = await db.collection(TIMELINES_COLLECTION).doc(userId)
+        .collection(TIMELINE_ENTRIES_COLLECTION)
+        .where("userId", "==", authorId)
+        .get();
+      await commitInChunks(entries.docs, (batch, entryDoc) => {
+        batch.delete(entryDoc.ref);
+      });
+    }
+
+    logger.info(
+      `Timeline synced for user ${userId}: +${followed.length} / -${unfollowed.length} authors`,
+      { userId }
+    );
+  }
+);
+
+/**
+ * 호출한 사용자의 타임라인을 기존 팔로잉 포스트로 채움
+ * 클라이언트는 timelines/{userId}.seeded가 없으면 타임라인을 읽기 전에 호출함
+ */
+export const seedMyTimeline = onCall(async (request) => {
+  const userId = request.auth?.uid;
+  if (!userId) {
+    throw new HttpsError("unauthenticated", "로그인이 필요합니다.");
+  }
+
+  const count = await seedTimeline(db, userId);
+  logger.info(`Seeded timeline for ${userId} with ${count} entries`, { userId });
+  return { count };
+});
+
+/**
+ * 좋아요 분산 카운터 샤드가 바뀌면 포스트를 합산 대기열(like_rollups)에 등록
+ * 좋아요마다 포스트 문서를 쓰지 않도록, 이미 대기 중인 포스트는 create()가 실패하면서 아무것도 쓰지 않음
+ * 실제 likeCount 반영은 rollUpPendingLikeCounts가 주기적으로 포스트당 한 번만 수행
+ * (기존 userLikes 배열은 배포 전에 scripts/backfill.ts의 legacy-likes 작업으로 이전)
+ */
+export const rollUpLikeShards = onDocumentWritten(
+  "posts/{postId}/like_shards/{shardId}",
+  async (event) => {
+    const postId = event.params.postId;
+    try {
+      await db.collection(LIKE_ROLLUPS_COLLECTION).doc(postId).create({
+        postId: postId,
+        enqueuedAt: admin.firestore.FieldValue.serverTimestamp(),
+      });
     } catch (error) {
-      logger.error("Error processing notification:", error, { userId });
-
-      // 에러 타입 검사 및 처리 (TS2352 오류 수정)
-      // 먼저 error가 FirebaseError와 유사한 구조인지 확인 (code 속성 존재 여부 등)
-      if (error && typeof error === "object" && "code" in error) {
-        const errorCode = (error as { code: string }).code; // error 객체에서 code 속성을 직접 읽음
-
-        if (
-          errorCode === "messaging/invalid-registration-token" ||
-          errorCode === "messaging/registration-token-not-registered"
-        ) {
-          logger.warn(
-            `Invalid token detected for user ${userId} during send. Deleting token.`, // 큰따옴표로 변경 (lint --fix)
-            { userId }
-          );
-          await db.collection("user_tokens").doc(userId).delete();
-        }
-      } else if (error instanceof Error) {
-        // 일반 Error 객체인 경우 (FirebaseError가 아닐 때)
-        logger.error("A non-Firebase error occurred:", error.message, { userId });
-      } else {
-        // 그 외 알 수 없는 에러
-        logger.error("An unknown error occurred during notification processing.", { userId });
+      if ((error as { code?: number }).code !== ALREADY_EXISTS) {
+        logger.warn(`Failed to enqueue like roll-up for post ${postId}`, { postId, error });
       }
+    }
+  }
+);
+
+/**
+ * 합산 대기 중인 포스트의 좋아요 샤드 합계를 likeCount에 반영
+ * 인기 포스트도 포스트 문서 쓰기는 주기당 한 번이며, likeCount는 피드 표시와 인기순 정렬용 근사값
+ * 대기열 항목을 먼저 지운 뒤 샤드를 읽으므로, 그 사이 들어온 좋아요는 새 항목으로 다음 주기에 반영됨
+ */
+export const rollUpPendingLikeCounts = onSchedule("every 1 minutes", async () => {
+  for (let pageCount = 0; pageCount < LIKE_ROLLUP_MAX_PAGES_PER_RUN; pageCount++) {
+    const page = await db.collection(LIKE_ROLLUPS_COLLECTION)
+      .orderBy("enqueuedAt")
+      .limit(BATCH_LIMIT)
+      .get();
+    if (page.empty) {
       return;
     }
+
+    for (let i = 0; i < page.size; i += LIKE_ROLLUP_CONCURRENCY) {
+      await Promise.all(page.docs.slice(i, i + LIKE_ROLLUP_CONCURRENCY).map(async (entry) => {
+        const postRef = db.collection("posts").doc(entry.id);
+        try {
+          await entry.ref.delete();
+          const shards = await postRef.collection("like_shards").select("count").get();
+          let total = 0;
+          shards.forEach((shard) => {
+            total += (shard.get("count") as number | undefined) || 0;
+          });
+          await postRef.update({ likeCount: Math.max(total, 0) });
+        } catch (error) {
+          // 포스트가 이미 삭제된 경우 등
+          logger.warn(`Failed to roll up like shards for post ${entry.id}`, { postId: entry.id, error });
+        }
+      }));
+    }
+
+    if (page.size < BATCH_LIMIT) {
+      return;
+    }
+  }
+});
+
+/**
+ * 새 포스트의 태그 구독자에게 알림 전송 (fan-out)
+ * 클라이언트는 포스트만 생성하고, 구독자 조회/알림 저장/FCM 발송은 모두 여기서 처리
+ * 구독자를 500명씩 페이지로 읽어 페이지마다 알림 WriteBatch 1개와 FCM sendEach 1회로 처리
+ * 여러 태그를 구독한 사용자는 포스트당 알림 하나만 받음
+ */
+export const notifyTagSubscribersOnNewPost = onDocumentCreated(
+  "posts/{postId}",
+  async (event: FirestoreEvent<QueryDocumentSnapshot | undefined, { postId: string }>) => {
+    const snapshot = event.data;
+    if (!snapshot) {
+      logger.log("Post snapshot is undefined.");
+      return;
+    }
+
+    const post = snapshot.data();
+    const postId = event.params.postId;
+    const senderId: string | undefined = post.userId;
+    const tags = (post.tags as { tagId?: string; name?: string }[] | undefined) || [];
+    if (!senderId || tags.length === 0) {
+      return;
+    }
+
+    const notified = new Set<string>([senderId]); // 작성자 본인 제외 + 중복 알림 방지
+    let total = 0;
+    for (const tag of tags) {
+      if (!tag.tagId) {
+        continue;
+      }
+      total += await notifySubscribersOfTag(tag.tagId, tag.name || "", post, notified);
+    }
+    logger.info(`Notified ${total} tag subscribers for post ${postId}`, { postId, senderId });
+  }
+);
+
+/**
+ * 태그 하나의 구독자를 페이지 단위로 읽으며 알림 저장 + 푸시 발송
+ * @return 알림을 보낸 구독자 수
+ */
+async function notifySubscribersOfTag(
+  tagId: string,
+  tagName: string,
+  post: admin.firestore.DocumentData,
+  notified: Set<string>
+): Promise<number> {
+  const senderName: string = post.userName || "";
+  const content = `${senderName}님이 '${tagName}' 태그에 새 게시물을 추가했습니다.`;
+  let count = 0;
+  let lastDoc: QueryDocumentSnapshot | undefined;
+
+  for (;;) {
+    let query = db.collection("tag_subscriptions")
+      .where("tagId", "==", tagId)
+      .orderBy(admin.firestore.FieldPath.documentId())
+      .limit(SUBSCRIBER_PAGE_SIZE);
+    if (lastDoc) {
+      query = query.startAfter(lastDoc);
+    }
+    const page = await query.get();
+    if (page.empty) {
+      break;
+    }
+    lastDoc = page.docs[page.docs.length - 1];
+
+    const recipients: string[] = [];
+    page.docs.forEach((doc) => {
+      const userId: string | undefined = doc.get("userId");
+      if (userId && !notified.has(userId)) {
+        notified.add(userId);
+        recipients.push(userId);
+      }
+    });
+
+    if (recipients.length > 0) {
+      // 알림 문서 저장 (페이지 크기 = 배치 한도이므로 커밋 1회)
+      await commitInChunks(recipients, (batch, userId) => {
+        const ref = db.collection("notifications").doc();
+        batch.set(ref, {
+          notificationId: ref.id,
+          userId: userId,
+          senderId: post.userId,
+          senderName: senderName,
+          senderProfilePic: post.userProfilePic || "",
+          notificationType: "tag",
+          targetId: tagId,
+          content: content,
+          isRead: false,
+          creationDate: admin.firestore.Timestamp.now(),
+          pushHandled: true, // sendPushOnNewNotification이 다시 발송하지 않도록 표시
+        });
+      });
+
+      await sendTagPushes(recipients, content, tagId);
+      count += recipients.length;
+    }
+
+    if (page.size < SUBSCRIBER_PAGE_SIZE) {
+      break;
+    }
+  }
+  return count;
+}
+
+/**
+ * 수신자들의 모든 기기 토큰으로 태그 알림 푸시를 sendEach로 묶어 발송
+ */
+async function sendTagPushes(recipients: string[], content: string, tagId: string): Promise<void> {
+  const tokensByUser = await getTokensForUsers(recipients);
+  const messages: TokenMessage[] = [];
+  const messageOwners: string[] = [];
+  tokensByUser.forEach((tokens, userId) => {
+    tokens.forEach((token) => {
+      messages.push(buildPushMessage(token, userId, content, "tag", tagId, 1));
+      messageOwners.push(userId);
+    });
+  });
+  await sendInChunks(messages, messageOwners);
+}
+
+/**
+ * 호출한 사용자의 읽지 않은 알림을 모두 읽음으로 표시 (500개 단위 배치)
+ */
+export const markAllNotificationsRead = onCall(async (request) => {
+  const userId = request.auth?.uid;
+  if (!userId) {
+    throw new HttpsError("unauthenticated", "로그인이 필요합니다.");
+  }
+
+  const count = await mutateQueryInPages(
+    db.collection("notifications")
+      .where("userId", "==", userId)
+      .where("isRead", "==", false),
+    (batch, ref) => batch.update(ref, { isRead: true })
+  );
+  logger.info(`Marked ${count} notifications as read for ${userId}`);
+  return { count };
+});
+
+/**
+ * 호출한 사용자의 알림을 모두 삭제 (500개 단위 배치)
+ */
+export const clearAllNotifications = onCall(async (request) => {
+  const userId = request.auth?.uid;
+  if (!userId) {
+    throw new HttpsError("unauthenticated", "로그인이 필요합니다.");
+  }
+
+  const count = await mutateQueryInPages(
+    db.collection("notifications").where("userId", "==", userId),
+    (batch, ref) => batch.delete(ref)
+  );
+  logger.info(`Deleted ${count} notifications for ${userId}`);
+  return { count };
+});
+
+/**
+ * 묶음 알림 삭제 시 발신자 표시(senders 하위 컬렉션)도 삭제
+ * 남아 있으면 알림을 지운 뒤 같은 발신자의 새 이벤트가 중복으로 걸러져 알림이 다시 생기지 않음
+ */
+export const removeNotificationSenders = onDocumentDeleted(
+  "notifications/{notificationId}",
+  async (event: FirestoreEvent<QueryDocumentSnapshot | undefined, { notificationId: string }>) => {
+    const notificationId = event.params.notificationId;
+    const count = await mutateQueryInPages(
+      db.collection("notifications").doc(notificationId).collection("senders"),
+      (batch, ref) => batch.delete(ref)
+    );
+    if (count > 0) {
+      logger.info(`Deleted ${count} sender markers of notification ${notificationId}`);
+    }
   }
-);
\ No newline at end of file
+);
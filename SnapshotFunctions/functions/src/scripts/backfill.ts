@@ -0,0 +1,268 @@
+/**
+ * 데이터 구조 변경 시 기존 문서를 새 구조로 옮기는 일회성 이전 스크립트
+ * 클라이언트/함수 배포 전에 실행하며, 여러 번 실행해도 결과가 같도록(멱등) 작성
+ *
+ * 사용법: npm run backfill -- <작업 이름>
+ *   (GOOGLE_APPLICATION_CREDENTIALS 또는 gcloud 기본 인증 정보 필요)
+ */
+import * as admin from "firebase-admin";
+import { QueryDocumentSnapshot, WriteBatch } from "firebase-admin/firestore";
+import { TIMELINES_COLLECTION, seedTimeline } from "../timelines";
+
+admin.initializeApp();
+
+const db: admin.firestore.Firestore = admin.firestore();
+
+// Firestore WriteBatch 최대 작업 수 (조회 페이지 크기도 동일하게 사용)
+const BATCH_LIMIT = 500;
+// GeoFirestore가 위치 인덱스 "g" 필드에 저장하는 geohash 길이
+const GEOHASH_PRECISION = 10;
+const GEOHASH_BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+/**
+ * 쿼리 결과를 문서 ID 순으로 500개씩 읽어 페이지마다 처리
+ * @return 처리한 문서 수
+ */
+async function forEachPage(
+  query: admin.firestore.Query,
+  handle: (docs: QueryDocumentSnapshot[]) => Promise<void>
+): Promise<number> {
+  let cursor: QueryDocumentSnapshot | undefined;
+  let count = 0;
+  for (;;) {
+    let pageQuery = query.orderBy(admin.firestore.FieldPath.documentId()).limit(BATCH_LIMIT);
+    if (cursor) {
+      pageQuery = pageQuery.startAfter(cursor);
+    }
+    const page = await pageQuery.get();
+    if (page.empty) {
+      return count;
+    }
+    await handle(page.docs);
+    count += page.size;
+    console.log(`  ${count}개 처리`);
+    if (page.size < BATCH_LIMIT) {
+      return count;
+    }
+    cursor = page.docs[page.size - 1];
+  }
+}
+
+/**
+ * 항목 목록을 500개 단위 WriteBatch로 나누어 순서대로 커밋
+ */
+async function commitInChunks<T>(
+  items: T[],
+  apply: (batch: WriteBatch, item: T) => void
+): Promise<void> {
+  for (let i = 0; i < items.length; i += BATCH_LIMIT) {
+    const batch = db.batch();
+    items.slice(i, i + BATCH_LIMIT).forEach((item) => apply(batch, item));
+    await batch.commit();
+  }
+}
+
+/**
+ * posts.userLikes 배열을 likes 하위 컬렉션 + "legacy" 좋아요 샤드로 이전
+ * - 좋아요 문서는 500개씩 나누어 쓰고, 이전으로 만든 문서에는 legacy: true 표시
+ * - 이미 클라이언트가 만든 좋아요 문서가 있는 사용자는 일반 샤드에 집계되어 있으므로 legacy 샤드에서 제외
+ * - 마지막 배치에서 legacy 샤드 기록과 userLikes 삭제를 함께 커밋 (중간에 실패하면 다시 실행)
+ */
+async function backfillLegacyLikes(): Promise<void> {
+  let migratedPosts = 0;
+  await forEachPage(db.collection("posts").select("userLikes"), async (posts) => {
+    for (const post of posts) {
+      const legacyLikers = post.get("userLikes") as string[] | undefined;
+      if (!Array.isArray(legacyLikers)) {
+        continue;
+      }
+
+      const likers = Array.from(new Set(legacyLikers));
+      const likesRef = post.ref.collection("likes");
+      const existing = new Map<string, boolean>(); // userId -> 이전 스크립트가 만든 문서인지
+      for (let i = 0; i < likers.length; i += BATCH_LIMIT) {
+        const refs = likers.slice(i, i + BATCH_LIMIT).map((userId) => likesRef.doc(userId));
+        const docs = await db.getAll(...refs, { fieldMask: ["legacy"] });
+        docs.forEach((doc) => {
+          if (doc.exists) {
+            existing.set(doc.id, doc.get("legacy") === true);
+          }
+        });
+      }
+
+      const toCreate = likers.filter((userId) => !existing.has(userId));
+      await commitInChunks(toCreate, (batch, userId) => {
+        batch.set(likesRef.doc(userId), {
+          userId: userId,
+          postId: post.id,
+          createdAt: admin.firestore.FieldValue.serverTimestamp(),
+          legacy: true,
+        });
+      });
+
+      // 클라이언트가 직접 누른 좋아요(legacy가 아닌 문서)는 이미 일반 샤드에 집계됨
+      const legacyCount = likers.filter((userId) => existing.get(userId) !== false).length;
+      const batch = db.batch();
+      batch.set(post.ref.collection("like_shards").doc("legacy"), { count: legacyCount });
+      batch.update(post.ref, { userLikes: admin.firestore.FieldValue.delete() });
+      await batch.commit();
+      migratedPosts++;
+    }
+  });
+  console.log(`legacy-likes: 포스트 ${migratedPosts}개 이전 완료`);
+}
+
+/**
+ * 모든 사용자의 타임라인을 fan-out 도입 전 팔로잉 포스트로 채움
+ * 이미 seeded로 표시된 사용자는 건너뜀 (앱에서 seedMyTimeline을 먼저 호출한 경우)
+ */
+async function backfillTimelines(): Promise<void> {
+  let seededUsers = 0;
+  await forEachPage(db.collection("users").select(), async (users) => {
+    const markers = await db.getAll(
+      ...users.map((user) => db.collection(TIMELINES_COLLECTION).doc(user.id)),
+      { fieldMask: ["seeded"] }
+    );
+    for (const marker of markers) {
+      if (marker.get("seeded") === true) {
+        continue;
+      }
+      await seedTimeline(db, marker.id);
+      seededUsers++;
+    }
+  });
+  console.log(`timelines: 사용자 ${seededUsers}명 타임라인 채움`);
+}
+
+/**
+ * authorRestricted 필드가 없는 기존 포스트에 작성자의 현재 제한 상태를 기록
+ * 피드 쿼리가 authorRestricted == false로 필터링하므로, 필드가 없는 포스트는 피드에서 모두 빠짐
+ */
+async function backfillAuthorRestricted(): Promise<void> {
+  let updatedPosts = 0;
+  await forEachPage(db.collection("posts").select("userId", "authorRestricted"), async (posts) => {
+    const missing = posts.filter((post) => typeof post.get("authorRestricted") !== "boolean");
+    if (missing.length === 0) {
+      return;
+    }
+
+    const authorIds = Array.from(new Set(missing.map((post) => post.get("userId") as string).filter(Boolean)));
+    const restricted = new Set<string>();
+    if (authorIds.length > 0) {
+      const authors = await db.getAll(
+        ...authorIds.map((userId) => db.collection("users").doc(userId)),
+        { fieldMask: ["restricted"] }
+      );
+      authors.forEach((author) => {
+        if (author.get("restricted") === true) {
+          restricted.add(author.id);
+        }
+      });
+    }
+
+    await commitInChunks(missing, (batch, post) => {
+      batch.update(post.ref, { authorRestricted: restricted.has(post.get("userId")) });
+    });
+    updatedPosts += missing.length;
+  });
+  console.log(`author-restricted: 포스트 ${updatedPosts}개 갱신`);
+}
+
+/**
+ * 좌표를 base32 geohash로 변환 (앱의 GeoHashUtils.encode와 같은 방식)
+ */
+function encodeGeohash(latitude: number, longitude: number, precision: number): string {
+  let minLat = -90;
+  let maxLat = 90;
+  let minLng = -180;
+  let maxLng = 180;
+  let hash = "";
+  let evenBit = true; // 짝수 비트는 경도, 홀수 비트는 위도
+  let bit = 0;
+  let value = 0;
+  while (hash.length < precision) {
+    if (evenBit) {
+      const mid = (minLng + maxLng) / 2;
+      if (longitude >= mid) {
+        value = (value << 1) | 1;
+        minLng = mid;
+      } else {
+        value = value << 1;
+        maxLng = mid;
+      }
+    } else {
+      const mid = (minLat + maxLat) / 2;
+      if (latitude >= mid) {
+        value = (value << 1) | 1;
+        minLat = mid;
+      } else {
+        value = value << 1;
+        maxLat = mid;
+      }
+    }
+    evenBit = !evenBit;
+    if (++bit === 5) {
+      hash += GEOHASH_BASE32.charAt(value);
+      bit = 0;
+      value = 0;
+    }
+  }
+  return hash;
+}
+
+/**
+ * 위치 태그가 있는 기존 포스트의 위치 인덱스(post_locations) 문서를 만들거나 "g"/"l" 필드를 보정
+ * 위치 인덱스 도입 전 포스트와, geohash 기록이 실패해 "g"가 없는 인덱스 문서를 함께 처리
+ */
+async function backfillPostLocations(): Promise<void> {
+  let indexedPosts = 0;
+  await forEachPage(db.collection("posts").select("tags"), async (posts) => {
+    const updates: { postId: string; location: admin.firestore.GeoPoint }[] = [];
+    posts.forEach((post) => {
+      const tags = (post.get("tags") as { tagType?: string; tagData?: { coordinates?: unknown } }[] | undefined) || [];
+      for (const tag of tags) {
+        const coordinates = tag.tagData?.coordinates;
+        if (tag.tagType === "location" && coordinates instanceof admin.firestore.GeoPoint &&
+          (coordinates.latitude !== 0 || coordinates.longitude !== 0)) {
+          updates.push({ postId: post.id, location: coordinates });
+          break;
+        }
+      }
+    });
+
+    await commitInChunks(updates, (batch, update) => {
+      batch.set(db.collection("post_locations").doc(update.postId), {
+        postId: update.postId,
+        g: encodeGeohash(update.location.latitude, update.location.longitude, GEOHASH_PRECISION),
+        l: update.location,
+      });
+    });
+    indexedPosts += updates.length;
+  });
+  console.log(`post-locations: 포스트 ${indexedPosts}개 위치 인덱스 기록`);
+}
+
+const jobs: Record<string, () => Promise<void>> = {
+  "legacy-likes": backfillLegacyLikes,
+  "timelines": backfillTimelines,
+  "author-restricted": backfillAuthorRestricted,
+  "post-locations": backfillPostLocations,
+};
+
+async function main(): Promise<void> {
+  const names = process.argv.slice(2);
+  if (names.length === 0 || names.some((name) => !jobs[name])) {
+    console.error(`사용법: npm run backfill -- <${Object.keys(jobs).join(" | ")}> ...`);
+    process.exitCode = 1;
+    return;
+  }
+  for (const name of names) {
+    console.log(`${name} 시작`);
+    await jobs[name]();
+  }
+}
+
+main().catch((error) => {
+  console.error(error);
+  process.exitCode = 1;
+});
@@ -0,0 +1,65 @@
+import * as admin from "firebase-admin";
+
+// 사용자별 홈 타임라인: timelines/{userId}/entries/{postId}
+// timelines/{userId} 문서의 seeded 필드는 기존 팔로잉 포스트가 채워졌는지 표시
+export const TIMELINES_COLLECTION = "timelines";
+export const TIMELINE_ENTRIES_COLLECTION = "entries";
+// 새로 팔로우했거나 타임라인을 처음 채울 때 가져올 팔로잉 사용자별 최근 포스트 수
+export const FOLLOW_BACKFILL_LIMIT = 50;
+// Firestore WriteBatch 최대 작업 수
+const BATCH_LIMIT = 500;
+// 타임라인을 채울 때 동시에 실행할 작성자별 포스트 조회 수
+const SEED_QUERY_CONCURRENCY = 20;
+
+/**
+ * 사용자 타임라인을 본인과 모든 팔로잉 사용자의 최근 포스트로 채우고 seeded로 표시
+ * fan-out 도입 전에 작성된 포스트가 홈 피드에서 빠지지 않도록 함 (항목 쓰기는 멱등이라 다시 실행해도 안전)
+ * @return 채운 타임라인 항목 수
+ */
+export async function seedTimeline(
+  db: admin.firestore.Firestore,
+  userId: string
+): Promise<number> {
+  const userDoc = await db.collection("users").doc(userId).get();
+  const following: string[] = (userDoc.get("following") as string[] | undefined) || [];
+  const authors = Array.from(new Set([userId, ...following]));
+  const entriesRef = db.collection(TIMELINES_COLLECTION).doc(userId).collection(TIMELINE_ENTRIES_COLLECTION);
+
+  // 작성자별 조회를 최대 SEED_QUERY_CONCURRENCY개씩 병렬로 실행 (작업자마다 남은 작성자를 하나씩 가져감)
+  const entries: { postId: string; authorId: string; creationDate: unknown }[] = [];
+  let nextAuthor = 0;
+  const worker = async (): Promise<void> => {
+    while (nextAuthor < authors.length) {
+      const authorId = authors[nextAuthor++];
+      const recentPosts = await db.collection("posts")
+        .where("userId", "==", authorId)
+        .orderBy("creationDate", "desc")
+        .limit(FOLLOW_BACKFILL_LIMIT)
+        .select("creationDate")
+        .get();
+      recentPosts.docs.forEach((postDoc) => {
+        entries.push({ postId: postDoc.id, authorId: authorId, creationDate: postDoc.get("creationDate") });
+      });
+    }
+  };
+  await Promise.all(Array.from({ length: Math.min(SEED_QUERY_CONCURRENCY, authors.length) }, worker));
+
+  for (let i = 0; i < entries.length; i += BATCH_LIMIT) {
+    const batch = db.batch();
+    entries.slice(i, i + BATCH_LIMIT).forEach((entry) => {
+      batch.set(entriesRef.doc(entry.postId), {
+        postId: entry.postId,
+        userId: entry.authorId,
+        creationDate: entry.creationDate,
+      });
+    });
+    await batch.commit();
+  }
+
+  // 모든 항목을 쓴 뒤에만 표시 (중간에 실패하면 클라이언트가 다시 요청)
+  await db.collection(TIMELINES_COLLECTION).doc(userId).set({
+    seeded: true,
+    seededAt: admin.firestore.FieldValue.serverTimestamp(),
+  }, { merge: true });
+  return entries.length;
+}
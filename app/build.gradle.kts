@@ -96,6 +96,9 @@ dependencies {
     implementation("androidx.recyclerview:recyclerview:1.3.2")
     implementation("androidx.cardview:cardview:1.0.0")
     
+    // 백그라운드 업로드 큐
+    implementation("androidx.work:work-runtime:2.9.0")
+    
     implementation("androidx.lifecycle:lifecycle-viewmodel:2.7.0")
     implementation("androidx.lifecycle:lifecycle-livedata:2.7.0")
     implementation("androidx.navigation:navigation-fragment:2.7.7")
@@ -1,6 +1,8 @@
 package com.example.snapshot.model;
 
 import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Exclude;
+import com.google.firebase.firestore.PropertyName;
 
 public class Notification {
     public static final String TYPE_LIKE = "like";
@@ -17,7 +19,8 @@ public class Notification {
     private String targetId;         // 관련 객체 ID (포스트, 댓글, 태그 등)
     private String content;          // 알림 내용
     private boolean isRead;          // 읽음 여부
-    private Timestamp creationDate;  // 생성 시간
+    private Timestamp creationDate;  // 생성 시간 (묶음 알림은 마지막 이벤트 시간)
+    private int count = 1;           // 묶인 발신자 수 (좋아요/댓글/팔로우는 대상별로 한 문서에 누적)
     
     // 빈 생성자 - Firestore에 필요
     public Notification() {
@@ -103,10 +106,13 @@ public class Notification {
         this.content = content;
     }
     
+    // 쿼리/업데이트에서 쓰는 필드 이름(isRead)과 맞춤
+    @PropertyName("isRead")
     public boolean isRead() {
         return isRead;
     }
     
+    @PropertyName("isRead")
     public void setRead(boolean read) {
         isRead = read;
     }
@@ -119,6 +125,45 @@ public class Notification {
         this.creationDate = creationDate;
     }
     
+    public int getCount() {
+        return count;
+    }
+    
+    public void setCount(int count) {
+        this.count = count;
+    }
+    
+    // 화면에 표시할 내용 (여러 이벤트가 묶인 경우 "OO님 외 N명이 ...")
+    @Exclude
+    public String getDisplayContent() {
+        if (count <= 1 || notificationType == null) {
+            return content;
+        }
+        String others = senderName + "님 외 " + (count - 1) + "명이 ";
+        switch (notificationType) {
+            case TYPE_LIKE:
+                return others + "회원님의 게시물을 좋아합니다.";
+            case TYPE_COMMENT:
+                return others + "회원님의 게시물에 댓글을 남겼습니다.";
+            case TYPE_FOLLOW:
+                return others + "회원님을 팔로우합니다.";
+            default:
+                return content;
+        }
+    }
+    
+    // 같은 대상에 대한 이벤트를 한 문서로 묶는 알림 유형인지 여부
+    public static boolean isAggregatable(String notificationType) {
+        return TYPE_LIKE.equals(notificationType)
+                || TYPE_COMMENT.equals(notificationType)
+                || TYPE_FOLLOW.equals(notificationType);
+    }
+    
+    // 묶음 알림 문서 ID (수신자 + 유형 + 대상)
+    public static String getAggregateId(String userId, String notificationType, String targetId) {
+        return userId + "_" + notificationType + "_" + targetId;
+    }
+    
     // 포스트 좋아요 알림 생성 팩토리 메서드
     public static Notification createLikeNotification(String userId, String senderId, 
                                                     String senderName, String senderProfilePic,
@@ -1,31 +1,38 @@
 package com.example.snapshot.model;
 
 import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.Exclude;
 import java.util.ArrayList;
 import java.util.List;
 
 public class Post {
+    public static final int FEED_IMAGE_SIZE = 1080; // feedImageUrl 이미지의 긴 변 크기 (px)
+    public static final int THUMBNAIL_SIZE = 320; // thumbnailUrl 이미지의 긴 변 크기 (px)
+    
     private String postId;
     private String userId;
     private String userName;
     private String userProfilePic;
-    private String imageUrl;
+    private String imageUrl; // 원본 해상도 이미지
+    private String feedImageUrl; // 피드용 중간 해상도 이미지 (없으면 imageUrl 사용)
+    private String thumbnailUrl; // 그리드/지도 마커용 썸네일 (없으면 imageUrl 사용)
     private String caption;
     private Timestamp creationDate;
     private int likeCount;
     private int commentCount;
-    private List<String> userLikes; // 좋아요를 누른 사용자 ID 목록
+    private boolean likedByCurrentUser; // 현재 사용자의 좋아요 여부 (클라이언트 전용, posts/{id}/likes 에서 조회)
     private List<Tag> tags; // 태그 목록
     private List<String> tagNames; // 태그 이름 목록 (검색용)
     private boolean hidden; // 신고로 인한 숨김 상태
     private String hiddenReason; // 숨김 이유
+    private boolean authorRestricted; // 작성자가 신고 누적으로 제한된 상태 (피드 쿼리 필터용)
     
     // 빈 생성자 - Firestore에 필요
     public Post() {
-        userLikes = new ArrayList<>();
         tags = new ArrayList<>();
         tagNames = new ArrayList<>(); // 초기화
         hidden = false; // 기본값은 숨김 아님
+        authorRestricted = false;
     }
     
     public Post(String postId, String userId, String userName, String userProfilePic, 
@@ -39,11 +46,11 @@ public class Post {
         this.creationDate = Timestamp.now();
         this.likeCount = 0;
         this.commentCount = 0;
-        this.userLikes = new ArrayList<>();
         this.tags = new ArrayList<>();
         this.tagNames = new ArrayList<>(); // 초기화
         this.hidden = false; // 기본값은 숨김 아님
         this.hiddenReason = "";
+        this.authorRestricted = false;
     }
     
     // 모든 필드를 받는 생성자 추가
@@ -58,11 +65,11 @@ public class Post {
         this.creationDate = creationDate != null ? creationDate : Timestamp.now();
         this.likeCount = 0; // 기본값
         this.commentCount = 0; // 기본값
-        this.userLikes = new ArrayList<>(); // 기본값
         // tags 설정 시 tagNames도 함께 설정
         setTags(tags != null ? tags : new ArrayList<>()); 
         this.hidden = false; // 기본값은 숨김 아님
         this.hiddenReason = "";
+        this.authorRestricted = false;
     }
     
     // Getter 및 Setter
@@ -106,6 +113,34 @@ public class Post {
         this.imageUrl = imageUrl;
     }
     
+    public String getFeedImageUrl() {
+        return feedImageUrl;
+    }
+    
+    public void setFeedImageUrl(String feedImageUrl) {
+        this.feedImageUrl = feedImageUrl;
+    }
+    
+    public String getThumbnailUrl() {
+        return thumbnailUrl;
+    }
+    
+    public void setThumbnailUrl(String thumbnailUrl) {
+        this.thumbnailUrl = thumbnailUrl;
+    }
+    
+    // 표시 크기(px)에 맞는 가장 작은 이미지 URL (해상도별 이미지가 없는 예전 게시물은 원본 사용)
+    @Exclude
+    public String getImageUrlForSize(int sizePx) {
+        if (sizePx <= THUMBNAIL_SIZE && !isEmpty(thumbnailUrl)) {
+            return thumbnailUrl;
+        }
+        if (sizePx <= FEED_IMAGE_SIZE && !isEmpty(feedImageUrl)) {
+            return feedImageUrl;
+        }
+        return imageUrl;
+    }
+    
     public String getCaption() {
         return caption;
     }
@@ -138,12 +173,15 @@ public class Post {
         this.commentCount = commentCount;
     }
     
-    public List<String> getUserLikes() {
-        return userLikes;
+    // 좋아요 사용자 목록은 likes 하위 컬렉션에 있으므로 Firestore에 저장하지 않음
+    @Exclude
+    public boolean isLikedByCurrentUser() {
+        return likedByCurrentUser;
     }
     
-    public void setUserLikes(List<String> userLikes) {
-        this.userLikes = userLikes;
+    @Exclude
+    public void setLikedByCurrentUser(boolean likedByCurrentUser) {
+        this.likedByCurrentUser = likedByCurrentUser;
     }
     
     public List<Tag> getTags() {
@@ -199,6 +237,18 @@ public class Post {
         this.hiddenReason = hiddenReason;
     }
     
+    public boolean isAuthorRestricted() {
+        return authorRestricted;
+    }
+    
+    public void setAuthorRestricted(boolean authorRestricted) {
+        this.authorRestricted = authorRestricted;
+    }
+    
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+    
     // tags 리스트를 기반으로 tagNames 리스트를 업데이트하는 헬퍼 메소드
     private void updateTagNames() {
         if (this.tags == null) {
@@ -0,0 +1,136 @@
+package com.example.snapshot.repository;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * 쿼리 결과 전체를 WriteBatch 제한(500개) 단위로 나누어 변경하는 유틸리티
+ * startAfter 커서로 페이지를 읽고, 커밋을 기다리는 동안 다음 페이지를 미리 읽되
+ * 동시에 커밋 중인 배치 수는 MAX_IN_FLIGHT_BATCHES로 제한
+ */
+public final class BulkQueryMutation {
+    public static final int BATCH_LIMIT = 500;
+    private static final int MAX_IN_FLIGHT_BATCHES = 3;
+
+    /**
+     * 문서 하나에 대한 변경을 배치에 추가
+     */
+    public interface Mutation {
+        void apply(WriteBatch batch, DocumentReference reference);
+    }
+
+    /**
+     * 진행 상황 콜백 (메인 스레드에서 호출)
+     */
+    public interface ProgressListener {
+        void onProgress(int processedCount);
+    }
+
+    private BulkQueryMutation() {
+    }
+
+    /**
+     * 쿼리에 해당하는 모든 문서에 변경을 적용
+     * 변경으로 쿼리 결과에서 빠지는 문서(삭제, 필터 필드 갱신)도 커서로 이어서 처리
+     * @param firestore Firestore 인스턴스
+     * @param query 변경할 문서 조회 쿼리 (limit는 유틸리티가 적용)
+     * @param mutation 문서별 변경
+     * @param listener 배치가 커밋될 때마다 누적 처리 수를 받을 콜백 (null 가능)
+     * @return 변경한 문서 수
+     */
+    public static Task<Integer> run(FirebaseFirestore firestore, Query query,
+                                    Mutation mutation, ProgressListener listener) {
+        return new Run(firestore, query, mutation, listener).start();
+    }
+
+    // 한 번의 대량 변경 상태 (모든 콜백이 메인 스레드에서 실행되므로 동기화 불필요)
+    private static final class Run {
+        private final FirebaseFirestore firestore;
+        private final Query query;
+        private final Mutation mutation;
+        private final ProgressListener listener;
+        private final TaskCompletionSource<Integer> result = new TaskCompletionSource<>();
+        private final Deque<Task<Void>> inFlight = new ArrayDeque<>();
+        private int processedCount = 0;
+
+        Run(FirebaseFirestore firestore, Query query, Mutation mutation, ProgressListener listener) {
+            this.firestore = firestore;
+            this.query = query;
+            this.mutation = mutation;
+            this.listener = listener;
+        }
+
+        Task<Integer> start() {
+            loadPage(null);
+            return result.getTask();
+        }
+
+        private void loadPage(DocumentSnapshot cursor) {
+            Query pageQuery = cursor != null
+                    ? query.startAfter(cursor).limit(BATCH_LIMIT)
+                    : query.limit(BATCH_LIMIT);
+
+            pageQuery.get().addOnCompleteListener(task -> {
+                if (!task.isSuccessful()) {
+                    result.trySetException(task.getException());
+                    return;
+                }
+
+                List<DocumentSnapshot> documents = task.getResult().getDocuments();
+                if (documents.isEmpty()) {
+                    finish();
+                    return;
+                }
+
+                WriteBatch batch = firestore.batch();
+                for (DocumentSnapshot document : documents) {
+                    mutation.apply(batch, document.getReference());
+                }
+                int pageSize = documents.size();
+                inFlight.add(batch.commit().addOnSuccessListener(unused -> {
+                    processedCount += pageSize;
+                    if (listener != null) {
+                        listener.onProgress(processedCount);
+                    }
+                }));
+
+                boolean lastPage = pageSize < BATCH_LIMIT;
+                DocumentSnapshot nextCursor = documents.get(pageSize - 1);
+
+                // 커밋 중인 배치가 가득 차면 가장 오래된 배치가 끝난 뒤 다음 페이지로 진행
+                Task<Void> gate = inFlight.size() >= MAX_IN_FLIGHT_BATCHES
+                        ? inFlight.poll()
+                        : Tasks.forResult(null);
+                gate.addOnCompleteListener(gateTask -> {
+                    if (!gateTask.isSuccessful()) {
+                        result.trySetException(gateTask.getException());
+                    } else if (lastPage) {
+                        finish();
+                    } else {
+                        loadPage(nextCursor);
+                    }
+                });
+            });
+        }
+
+        private void finish() {
+            Tasks.whenAll(inFlight).addOnCompleteListener(task -> {
+                if (task.isSuccessful()) {
+                    result.trySetResult(processedCount);
+                } else {
+                    result.trySetException(task.getException());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.snapshot.repository;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Firestore whereIn / whereArrayContainsAny 조회 유틸리티
+ * 두 조건 모두 한 번에 최대 30개 값만 허용하므로 값 목록을 나누어 병렬로 조회한 뒤 결과를 병합
+ */
+public final class ChunkedWhereInQuery {
+    public static final int WHERE_IN_LIMIT = 30;
+
+    // 값 조각 하나를 기본 쿼리에 적용하는 조건
+    private interface ChunkFilter {
+        Query apply(Query baseQuery, List<Object> chunk);
+    }
+
+    private ChunkedWhereInQuery() {
+    }
+
+    /**
+     * 값 목록을 30개씩 나누어 whereIn 조회를 병렬 실행하고 결과 문서를 병합
+     * @param baseQuery whereIn을 제외한 조건이 적용된 쿼리
+     * @param field whereIn 대상 필드
+     * @param values 조회할 값 목록 (중복은 제거됨)
+     * @param order 병합 결과 정렬 기준 (null이면 조각 순서대로 병합)
+     * @return 병합된 문서 목록 (같은 문서는 한 번만 포함)
+     */
+    public static Task<List<DocumentSnapshot>> get(Query baseQuery, FieldPath field,
+                                                   List<?> values, Comparator<DocumentSnapshot> order) {
+        return run(baseQuery, (query, chunk) -> query.whereIn(field, chunk), values, order);
+    }
+
+    public static Task<List<DocumentSnapshot>> get(Query baseQuery, String field,
+                                                   List<?> values, Comparator<DocumentSnapshot> order) {
+        return get(baseQuery, FieldPath.of(field), values, order);
+    }
+
+    /**
+     * 값 목록을 30개씩 나누어 whereArrayContainsAny 조회를 병렬 실행하고 결과 문서를 병합
+     * @param baseQuery 배열 조건을 제외한 조건이 적용된 쿼리
+     * @param field 배열 필드 (예: tagNames)
+     * @param values 배열에 포함되어 있는지 확인할 값 목록 (중복은 제거됨)
+     * @param order 병합 결과 정렬 기준 (null이면 조각 순서대로 병합)
+     * @return 병합된 문서 목록 (여러 조각에 걸린 문서도 한 번만 포함)
+     */
+    public static Task<List<DocumentSnapshot>> getArrayContainsAny(Query baseQuery, String field,
+                                                                   List<?> values, Comparator<DocumentSnapshot> order) {
+        return run(baseQuery, (query, chunk) -> query.whereArrayContainsAny(field, chunk), values, order);
+    }
+
+    private static Task<List<DocumentSnapshot>> run(Query baseQuery, ChunkFilter filter,
+                                                    List<?> values, Comparator<DocumentSnapshot> order) {
+        if (values == null || values.isEmpty()) {
+            return Tasks.forResult(new ArrayList<>());
+        }
+
+        List<Object> distinctValues = new ArrayList<>(new LinkedHashSet<>(values));
+        List<Task<QuerySnapshot>> chunkTasks = new ArrayList<>();
+        for (int i = 0; i < distinctValues.size(); i += WHERE_IN_LIMIT) {
+            List<Object> chunk = new ArrayList<>(
+                    distinctValues.subList(i, Math.min(i + WHERE_IN_LIMIT, distinctValues.size())));
+            chunkTasks.add(filter.apply(baseQuery, chunk).get());
+        }
+
+        return Tasks.whenAllSuccess(chunkTasks).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+
+            List<DocumentSnapshot> merged = new ArrayList<>();
+            Set<String> seenPaths = new HashSet<>();
+            for (Object result : task.getResult()) {
+                for (DocumentSnapshot document : ((QuerySnapshot) result).getDocuments()) {
+                    if (seenPaths.add(document.getReference().getPath())) {
+                        merged.add(document);
+                    }
+                }
+            }
+            if (order != null) {
+                Collections.sort(merged, order);
+            }
+            return merged;
+        });
+    }
+
+    /**
+     * Timestamp 필드 내림차순 정렬 기준 (값이 없는 문서는 뒤로)
+     * @param field Timestamp 필드 이름 (예: creationDate)
+     */
+    public static Comparator<DocumentSnapshot> byTimestampDescending(String field) {
+        return (first, second) -> {
+            Timestamp firstTime = first.getTimestamp(field);
+            Timestamp secondTime = second.getTimestamp(field);
+            if (firstTime == null && secondTime == null) return 0;
+            if (firstTime == null) return 1;
+            if (secondTime == null) return -1;
+            return secondTime.compareTo(firstTime);
+        };
+    }
+}
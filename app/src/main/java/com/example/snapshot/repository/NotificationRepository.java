@@ -9,28 +9,28 @@ import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.WriteBatch;
+import com.google.firebase.functions.FirebaseFunctions;
 import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.RemoteMessage;
 import android.util.Log;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.Callable;
 
 public class NotificationRepository {
     private static final String NOTIFICATIONS_COLLECTION = "notifications";
+    private static final String SENDERS_COLLECTION = "senders"; // 묶음 알림에 이미 반영된 발신자 표시
     private static final String TAG_SUBSCRIPTIONS_COLLECTION = "tag_subscriptions";
     private static final String USER_TOKENS_COLLECTION = "user_tokens";
     private static final String TAG = "NotificationRepository";
+    private static final String FUNCTIONS_REGION = "asia-northeast3"; // Cloud Functions 배포 리전
     
     private final FirebaseFirestore firestore;
     private final FirebaseMessaging firebaseMessaging;
-    private final Executor executor;
+    private final FirebaseFunctions functions;
     
     // 싱글톤 패턴
     private static NotificationRepository instance;
@@ -45,11 +45,15 @@ public class NotificationRepository {
     private NotificationRepository() {
         firestore = FirebaseFirestore.getInstance();
         firebaseMessaging = FirebaseMessaging.getInstance();
-        executor = Executors.newSingleThreadExecutor();
+        functions = FirebaseFunctions.getInstance(FUNCTIONS_REGION);
     }
     
     // 알림 저장
     public Task<Void> saveNotification(Notification notification) {
+        if (Notification.isAggregatable(notification.getNotificationType())) {
+            return saveAggregatedNotification(notification);
+        }
+        
         DocumentReference notificationRef = firestore.collection(NOTIFICATIONS_COLLECTION).document();
         notification.setNotificationId(notificationRef.getId());
         
@@ -64,6 +68,52 @@ public class NotificationRepository {
                 });
     }
     
+    /**
+     * 좋아요/댓글/팔로우 알림을 수신자+유형+대상별 문서 하나에 누적
+     * 읽기 없이 merge 쓰기로 카운터를 올리고 최신 발신자로 덮어쓰므로 트랜잭션 경합이 없음
+     * 발신자별 표시 문서(senders/{senderId})로 중복을 거르므로, 같은 사용자가 좋아요 취소 후 다시 누르거나
+     * 댓글을 여러 번 달아도 count와 푸시가 늘지 않음 (표시 문서 조회는 발신자마다 다른 문서라 경합 없음)
+     * 새 발신자의 이벤트가 오면 다시 읽지 않음 상태가 되고 목록 맨 위로 올라감
+     * @param notification 새 이벤트 알림
+     */
+    private Task<Void> saveAggregatedNotification(Notification notification) {
+        String notificationId = Notification.getAggregateId(
+                notification.getUserId(), notification.getNotificationType(), notification.getTargetId());
+        notification.setNotificationId(notificationId);
+        DocumentReference notificationRef = firestore.collection(NOTIFICATIONS_COLLECTION).document(notificationId);
+        DocumentReference senderRef = notificationRef.collection(SENDERS_COLLECTION).document(notification.getSenderId());
+        
+        return senderRef.get().continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                return Tasks.<Void>forException(task.getException());
+            }
+            if (task.getResult().exists()) {
+                return Tasks.<Void>forResult(null); // 이미 묶인 발신자의 반복 이벤트
+            }
+            
+            Map<String, Object> data = new HashMap<>();
+            data.put("notificationId", notificationId);
+            data.put("userId", notification.getUserId());
+            data.put("senderId", notification.getSenderId());
+            data.put("senderName", notification.getSenderName());
+            data.put("senderProfilePic", notification.getSenderProfilePic());
+            data.put("notificationType", notification.getNotificationType());
+            data.put("targetId", notification.getTargetId());
+            data.put("content", notification.getContent());
+            data.put("isRead", false);
+            data.put("creationDate", notification.getCreationDate());
+            data.put("count", FieldValue.increment(1));
+            
+            Map<String, Object> sender = new HashMap<>();
+            sender.put("createdAt", notification.getCreationDate());
+            
+            WriteBatch batch = firestore.batch();
+            batch.set(senderRef, sender);
+            batch.set(notificationRef, data, SetOptions.merge());
+            return batch.commit();
+        }).addOnFailureListener(e -> Log.e(TAG, "Failed to save aggregated notification: ID=" + notificationId, e));
+    }
+    
     // 사용자가 받은 알림 조회
     public Query getNotificationsForUser(String userId) {
         return firestore.collection(NOTIFICATIONS_COLLECTION)
@@ -83,30 +133,25 @@ public class NotificationRepository {
     }
     
     // 사용자의 모든 알림을 읽음으로 표시
-    public Task<Void> markAllNotificationsAsRead(String userId) {
-        // 먼저 사용자의 읽지 않은 알림을 쿼리
-        return firestore.collection(NOTIFICATIONS_COLLECTION)
-                .whereEqualTo("userId", userId)
-                .whereEqualTo("isRead", false)
-                .get()
-                .continueWithTask(task -> {
-                    if (!task.isSuccessful() || task.getResult().isEmpty()) {
-                        return Tasks.forResult(null);
-                    }
-                    
-                    QuerySnapshot querySnapshot = task.getResult();
-                    List<DocumentSnapshot> documents = querySnapshot.getDocuments();
-                    
-                    // 최대 500개의 문서를 한번에 업데이트 (Firestore 제한)
-                    WriteBatch batch = firestore.batch();
-                    
-                    for (DocumentSnapshot document : documents) {
-                        DocumentReference docRef = document.getReference();
-                        batch.update(docRef, "isRead", true);
-                    }
-                    
-                    return batch.commit();
-                });
+    public Task<Integer> markAllNotificationsAsRead(String userId) {
+        return markAllNotificationsAsRead(userId, null);
+    }
+    
+    /**
+     * 사용자의 읽지 않은 알림을 모두 읽음으로 표시
+     * 서버 함수(markAllNotificationsRead)로 처리하고, 호출할 수 없으면 500개 단위 배치로 직접 처리
+     * @param userId 사용자 ID
+     * @param listener 직접 처리할 때의 진행 상황 콜백 (null 가능)
+     * @return 변경한 알림 수
+     */
+    public Task<Integer> markAllNotificationsAsRead(String userId, BulkQueryMutation.ProgressListener listener) {
+        return callBulkFunction("markAllNotificationsRead", () -> BulkQueryMutation.run(
+                firestore,
+                firestore.collection(NOTIFICATIONS_COLLECTION)
+                        .whereEqualTo("userId", userId)
+                        .whereEqualTo("isRead", false),
+                (batch, reference) -> batch.update(reference, "isRead", true),
+                listener));
     }
     
     // 알림 삭제
@@ -117,25 +162,37 @@ public class NotificationRepository {
     }
     
     // 사용자의 모든 알림 삭제
-    public Task<Void> deleteAllNotificationsForUser(String userId) {
-        return firestore.collection(NOTIFICATIONS_COLLECTION)
-                .whereEqualTo("userId", userId)
-                .get()
+    public Task<Integer> deleteAllNotificationsForUser(String userId) {
+        return deleteAllNotificationsForUser(userId, null);
+    }
+    
+    /**
+     * 사용자의 알림을 모두 삭제
+     * 서버 함수(clearAllNotifications)로 처리하고, 호출할 수 없으면 500개 단위 배치로 직접 처리
+     * @param userId 사용자 ID
+     * @param listener 직접 처리할 때의 진행 상황 콜백 (null 가능)
+     * @return 삭제한 알림 수
+     */
+    public Task<Integer> deleteAllNotificationsForUser(String userId, BulkQueryMutation.ProgressListener listener) {
+        return callBulkFunction("clearAllNotifications", () -> BulkQueryMutation.run(
+                firestore,
+                firestore.collection(NOTIFICATIONS_COLLECTION).whereEqualTo("userId", userId),
+                (batch, reference) -> batch.delete(reference),
+                listener));
+    }
+    
+    // 대량 변경 서버 함수 호출 - 함수가 배포되지 않았거나 호출에 실패하면 클라이언트에서 직접 처리
+    private Task<Integer> callBulkFunction(String functionName, Callable<Task<Integer>> fallback) {
+        return functions.getHttpsCallable(functionName)
+                .call()
                 .continueWithTask(task -> {
-                    if (!task.isSuccessful() || task.getResult().isEmpty()) {
-                        return Tasks.forResult(null);
-                    }
-                    
-                    QuerySnapshot querySnapshot = task.getResult();
-                    List<DocumentSnapshot> documents = querySnapshot.getDocuments();
-                    
-                    WriteBatch batch = firestore.batch();
-                    
-                    for (DocumentSnapshot document : documents) {
-                        batch.delete(document.getReference());
+                    if (task.isSuccessful()) {
+                        Object data = task.getResult().getData();
+                        Object count = data instanceof Map ? ((Map<?, ?>) data).get("count") : null;
+                        return Tasks.forResult(count instanceof Number ? ((Number) count).intValue() : 0);
                     }
-                    
-                    return batch.commit();
+                    Log.w(TAG, functionName + " 호출 실패, 클라이언트에서 직접 처리", task.getException());
+                    return fallback.call();
                 });
     }
     
@@ -188,81 +245,17 @@ public class NotificationRepository {
     public Task<Void> saveUserToken(String userId, String token) {
         DocumentReference tokenRef = firestore.collection(USER_TOKENS_COLLECTION).document(userId);
         
+        // 기기마다 토큰이 다르므로 tokens 배열에 추가 (token 필드는 최근 기기 토큰, 이전 버전 호환용)
         Map<String, Object> tokenData = new HashMap<>();
         tokenData.put("token", token);
+        tokenData.put("tokens", FieldValue.arrayUnion(token));
         tokenData.put("updatedAt", FieldValue.serverTimestamp());
         
-        return tokenRef.set(tokenData);
+        return tokenRef.set(tokenData, SetOptions.merge());
     }
     
-    // 다른 사용자에게 알림 전송
+    // 다른 사용자에게 알림 전송 (푸시는 알림 문서 생성 시 Cloud Function이 수신자별로 모아서 발송)
     public void sendNotificationToUser(String targetUserId, Notification notification) {
-        // 알림 저장
         saveNotification(notification);
-        
-        // FCM을 통한 푸시 알림 전송
-        executor.execute(() -> {
-            try {
-                // 사용자 토큰 조회
-                firestore.collection(USER_TOKENS_COLLECTION)
-                        .document(targetUserId)
-                        .get()
-                        .addOnSuccessListener(tokenDoc -> {
-                            if (tokenDoc != null && tokenDoc.exists()) {
-                                String token = tokenDoc.getString("token");
-                                
-                                if (token != null && !token.isEmpty()) {
-                                    // 메시지 구성
-                                    Map<String, String> data = new HashMap<>();
-                                    data.put("title", "SnapShot");
-                                    data.put("body", notification.getContent());
-                                    data.put("notificationType", notification.getNotificationType());
-                                    data.put("targetId", notification.getTargetId());
-                                    
-                                    // FCM으로 메시지 전송
-                                    // Firebase 서버에서 실제 전송을 처리하므로 이 부분은 Firebase Cloud Functions에서 처리해야 함
-                                    // 여기서는 알림을 데이터베이스에 저장하는 것으로 대체
-                                }
-                            }
-                        })
-                        .addOnFailureListener(e -> {
-                            // 토큰 조회 실패해도 정상적으로 처리
-                            e.printStackTrace();
-                        });
-            } catch (Exception e) {
-                // 오류 처리
-                e.printStackTrace();
-            }
-        });
-    }
-    
-    // 태그를 구독한 모든 사용자에게 알림 전송
-    public void sendNotificationToTagSubscribers(String tagId, String tagName, 
-                                               String senderId, String senderName, 
-                                               String senderProfilePic) {
-        // 태그 구독자 조회
-        firestore.collection(TAG_SUBSCRIPTIONS_COLLECTION)
-                .whereEqualTo("tagId", tagId)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    List<String> subscriberIds = new ArrayList<>();
-                    
-                    for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                        String userId = doc.getString("userId");
-                        
-                        // 자신을 제외한 구독자만 알림 전송
-                        if (userId != null && !userId.equals(senderId)) {
-                            subscriberIds.add(userId);
-                        }
-                    }
-                    
-                    // 각 구독자에게 알림 전송
-                    for (String userId : subscriberIds) {
-                        Notification notification = Notification.createTagNotification(
-                                userId, senderId, senderName, senderProfilePic, tagId, tagName);
-                        
-                        sendNotificationToUser(userId, notification);
-                    }
-                });
     }
 } 
\ No newline at end of file
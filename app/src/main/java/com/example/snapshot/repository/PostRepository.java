@@ -1,11 +1,16 @@
 package com.example.snapshot.repository;
 
+import android.net.Uri;
+
 import com.example.snapshot.model.Comment;
 import com.example.snapshot.model.Post;
 import com.example.snapshot.model.Tag;
 import com.example.snapshot.model.User;
 import com.example.snapshot.model.Notification;
+import com.example.snapshot.utils.GeoHashUtils;
+import com.example.snapshot.utils.ImagePreparer;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.firestore.CollectionReference;
@@ -13,19 +18,30 @@ import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.GeoPoint;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+import com.google.firebase.functions.FirebaseFunctions;
 import com.google.firebase.storage.FirebaseStorage;
+import com.google.firebase.storage.StorageMetadata;
 import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.UploadTask;
 
+import org.imperiumlabs.geofirestore.GeoFirestore;
+import org.imperiumlabs.geofirestore.GeoQuery;
+import org.imperiumlabs.geofirestore.listeners.GeoQueryEventListener;
+
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 import java.util.UUID;
 
 public class PostRepository {
@@ -33,12 +49,29 @@ public class PostRepository {
     private static final String COMMENTS_COLLECTION = "comments";
     private static final String TAGS_COLLECTION = "tags";
     private static final String POST_TAGS_COLLECTION = "post_tags";
+    private static final String TIMELINES_COLLECTION = "timelines";
+    private static final String TIMELINE_ENTRIES_COLLECTION = "entries";
+    private static final String LIKES_COLLECTION = "likes";
+    private static final String LIKE_SHARDS_COLLECTION = "like_shards";
+    private static final String POST_LOCATIONS_COLLECTION = "post_locations"; // GeoFirestore 위치 인덱스
+    private static final String USERS_COLLECTION = "users";
+    private static final String POST_DRAFTS_COLLECTION = "post_drafts"; // 이미지 업로드 대기 중인 게시물 (users/{uid}/post_drafts)
+    public static final String RENDITION_FULL = "imageUrl"; // 해상도별 이미지 키 (Post 필드 이름과 동일)
+    public static final String RENDITION_FEED = "feedImageUrl";
+    public static final String RENDITION_THUMB = "thumbnailUrl";
+    private static final int LIKE_SHARD_COUNT = 10; // 좋아요 분산 카운터 샤드 수
+    private static final int PARTIAL_TAG_MATCH_LIMIT = 90; // 부분 검색에 사용할 최대 태그 수 (whereArrayContainsAny 3회)
     private static final String TAG = "PostRepository";
+    private static final String FUNCTIONS_REGION = "asia-northeast3"; // Cloud Functions 배포 리전
     
     private final FirebaseFirestore firestore;
     private final FirebaseStorage storage;
     private final FirebaseAuth auth;
     private final NotificationRepository notificationRepository;
+    private final GeoFirestore geoFirestore;
+    private final Random random = new Random();
+    private final Set<String> seededTimelineOwners = new HashSet<>(); // 타임라인 채움이 확인된 사용자
+    private final Map<String, Task<Void>> seedingTimelines = new HashMap<>(); // 채우는 중인 타임라인 (중복 호출 방지)
     
     // 싱글톤 패턴
     private static PostRepository instance;
@@ -55,60 +88,143 @@ public class PostRepository {
         storage = FirebaseStorage.getInstance();
         auth = FirebaseAuth.getInstance();
         notificationRepository = NotificationRepository.getInstance();
+        
+        // GeoFirestore 초기화 - 포스트 위치 인덱스 컬렉션 연결 (TagRepository의 location_tags와 같은 구성)
+        geoFirestore = new GeoFirestore(firestore.collection(POST_LOCATIONS_COLLECTION));
+    }
+    
+    // 해상도별 이미지 업로드 (원본/피드/썸네일을 동시에 올린 뒤 Post 필드 이름 -> 다운로드 URL 반환)
+    public Task<Map<String, String>> uploadPostImageRenditions(String imageFileName, ImagePreparer.Renditions renditions) {
+        Task<String> fullTask = uploadAndGetUrl(getPostImagePath(RENDITION_FULL, imageFileName), renditions.full);
+        Task<String> feedTask = uploadAndGetUrl(getPostImagePath(RENDITION_FEED, imageFileName), renditions.feed);
+        Task<String> thumbTask = uploadAndGetUrl(getPostImagePath(RENDITION_THUMB, imageFileName), renditions.thumb);
+        
+        return Tasks.whenAll(fullTask, feedTask, thumbTask).continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                return Tasks.forException(task.getException());
+            }
+            Map<String, String> urls = new HashMap<>();
+            urls.put(RENDITION_FULL, fullTask.getResult());
+            urls.put(RENDITION_FEED, feedTask.getResult());
+            urls.put(RENDITION_THUMB, thumbTask.getResult());
+            return Tasks.forResult(urls);
+        });
+    }
+    
+    private Task<String> uploadAndGetUrl(String path, byte[] data) {
+        StorageReference ref = storage.getReference().child(path);
+        return ref.putBytes(data)
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        return Tasks.forException(task.getException());
+                    }
+                    return ref.getDownloadUrl();
+                })
+                .onSuccessTask(uri -> Tasks.forResult(uri.toString()));
+    }
+    
+    // 해상도별 이미지의 Storage 경로
+    public static String getPostImagePath(String rendition, String imageFileName) {
+        switch (rendition) {
+            case RENDITION_FEED:
+                return "post_images/feed/" + imageFileName;
+            case RENDITION_THUMB:
+                return "post_images/thumb/" + imageFileName;
+            default:
+                return "post_images/" + imageFileName;
+        }
     }
     
-    // 이미지 업로드 (파일 이름 지정)
-    public UploadTask uploadPostImage(String imageFileName, byte[] imageData) {
-        StorageReference storageRef = storage.getReference();
-        StorageReference postImageRef = storageRef.child("post_images/" + imageFileName);
-        return postImageRef.putBytes(imageData);
+    /**
+     * 로컬 파일을 재개 가능한 업로드 세션으로 업로드
+     * @param storagePath Storage 경로
+     * @param fileUri 업로드할 로컬 파일 Uri
+     * @param sessionUri 이전 시도의 업로드 세션 Uri (없으면 null, 있으면 이어서 업로드)
+     * @return 업로드 Task (진행 중 getUploadSessionUri()로 세션 Uri 확인 가능)
+     */
+    public UploadTask uploadPostImageFile(String storagePath, Uri fileUri, Uri sessionUri) {
+        StorageMetadata metadata = new StorageMetadata.Builder()
+                .setContentType("image/jpeg")
+                .build();
+        return storage.getReference().child(storagePath).putFile(fileUri, metadata, sessionUri);
+    }
+    
+    public Task<Uri> getPostImageDownloadUrl(String storagePath) {
+        return storage.getReference().child(storagePath).getDownloadUrl();
+    }
+    
+    // 업로드 대기 중인 게시물 초안 저장 (오프라인이어도 Firestore 로컬 캐시에 보관됨)
+    public Task<Void> savePostDraft(String userId, String draftId, Post draft) {
+        return getPostDraftRef(userId, draftId).set(draft);
+    }
+    
+    public Task<DocumentSnapshot> getPostDraft(String userId, String draftId) {
+        return getPostDraftRef(userId, draftId).get();
     }
     
-    // 새 포스트 생성
+    public Task<Void> deletePostDraft(String userId, String draftId) {
+        return getPostDraftRef(userId, draftId).delete();
+    }
+    
+    private DocumentReference getPostDraftRef(String userId, String draftId) {
+        return firestore.collection(USERS_COLLECTION).document(userId)
+                .collection(POST_DRAFTS_COLLECTION).document(draftId);
+    }
+    
+    // 새 포스트 생성 (작성자 정보를 한 번 조회한 뒤 createPost(Post, User)로 위임)
     public Task<Void> createPost(Post post) {
-        String postId = firestore.collection(POSTS_COLLECTION).document().getId();
+        return UserRepository.getInstance().getUserById(post.getUserId())
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        return Tasks.forException(task.getException());
+                    }
+                    return createPost(post, task.getResult().toObject(User.class));
+                });
+    }
+    
+    /**
+     * 새 포스트 생성
+     * 포스트, 태그-포스트 매핑, 태그 사용 횟수 증가를 하나의 WriteBatch로 원자적으로 커밋
+     * 반환된 Task는 모든 쓰기가 커밋된 뒤 완료됨 (태그 구독자 알림은 포스트 생성 이벤트로 Cloud Function이 전송)
+     * @param post 생성할 포스트
+     * @param author 작성자 정보 (이미 조회한 경우 전달, 없으면 null)
+     */
+    public Task<Void> createPost(Post post, User author) {
+        // postId가 미리 정해진 경우(업로드 큐의 재시도) 같은 문서를 사용
+        String postId = post.getPostId() != null ? post.getPostId() : firestore.collection(POSTS_COLLECTION).document().getId();
         post.setPostId(postId);
+        if (author != null) {
+            post.setAuthorRestricted(author.isRestricted());
+        }
         
+        WriteBatch batch = firestore.batch();
         DocumentReference postRef = firestore.collection(POSTS_COLLECTION).document(postId);
-        Task<Void> setTask = postRef.set(post);
+        batch.set(postRef, post);
         
-        // 태그가 있으면 태그-포스트 관계 매핑
-        if (post.getTags() != null && !post.getTags().isEmpty()) {
-            for (Tag tag : post.getTags()) {
-                // 태그-포스트 매핑 문서 생성
-                String mappingId = tag.getTagId() + "_" + postId;
-                DocumentReference mappingRef = firestore.collection(POST_TAGS_COLLECTION).document(mappingId);
-                
-                Map<String, Object> mappingData = new HashMap<>();
-                mappingData.put("tagId", tag.getTagId());
-                mappingData.put("postId", postId);
-                mappingData.put("createdAt", FieldValue.serverTimestamp());
-                
-                mappingRef.set(mappingData);
-                
-                // 태그 사용 카운트 증가
-                TagRepository.getInstance().incrementTagUseCount(tag.getTagId());
-                
-                // 태그 구독자에게 알림 전송
-                UserRepository userRepo = UserRepository.getInstance();
-                if (userRepo.getCurrentUser() != null) {
-                    String userId = userRepo.getCurrentUser().getUid();
-                    userRepo.getUserById(userId).addOnSuccessListener(documentSnapshot -> {
-                        User currentUser = documentSnapshot.toObject(User.class);
-                        if (currentUser != null) {
-                            notificationRepository.sendNotificationToTagSubscribers(
-                                    tag.getTagId(), 
-                                    tag.getName(), 
-                                    currentUser.getUserId(), 
-                                    currentUser.getUsername(),
-                                    currentUser.getProfilePicUrl());
-                        }
-                    });
-                }
-            }
+        // 태그가 있으면 태그-포스트 관계 매핑 및 사용 횟수 증가
+        List<Tag> tags = post.getTags() != null ? post.getTags() : new ArrayList<>();
+        TagRepository tagRepository = TagRepository.getInstance();
+        for (Tag tag : tags) {
+            String mappingId = tag.getTagId() + "_" + postId;
+            DocumentReference mappingRef = firestore.collection(POST_TAGS_COLLECTION).document(mappingId);
+            
+            Map<String, Object> mappingData = new HashMap<>();
+            mappingData.put("tagId", tag.getTagId());
+            mappingData.put("postId", postId);
+            mappingData.put("createdAt", FieldValue.serverTimestamp());
+            
+            batch.set(mappingRef, mappingData);
+            tagRepository.incrementTagUseCount(batch, tag.getTagId());
         }
         
-        return setTask;
+        // 위치 태그가 있으면 위치 인덱스 문서(geohash 포함)도 같은 배치로 생성
+        GeoPoint location = findLocation(tags);
+        if (location != null) {
+            batch.set(firestore.collection(POST_LOCATIONS_COLLECTION).document(postId),
+                    createLocationIndexData(postId, location));
+        }
+        
+        return batch.commit();
     }
     
     // 특정 포스트 가져오기
@@ -116,57 +232,133 @@ public class PostRepository {
         return firestore.collection(POSTS_COLLECTION).document(postId).get();
     }
     
-    // 홈 피드용 포스트 가져오기 (팔로우 중인 사용자 + 인기 포스트)
-    public Query getPostsForHomeFeed(List<String> followingIds) {
-        if (followingIds == null || followingIds.isEmpty()) {
-            followingIds = new ArrayList<>();
-            followingIds.add("dummy_id"); // whereIn은 비어있는 리스트를 허용하지 않음
+    /**
+     * 사용자 홈 타임라인 항목 쿼리
+     * 포스트 작성 시 Cloud Function(fanOutPostToTimelines)이 작성자와 팔로워의
+     * timelines/{userId}/entries 에 {postId, userId, creationDate} 항목을 추가함
+     * 팔로우 수와 관계없이 단일 범위 조회로 피드를 가져올 수 있음
+     * @param userId 타임라인 소유자 ID
+     * @return 작성일 내림차순 타임라인 항목 쿼리
+     */
+    public Query getTimelineForUser(String userId) {
+        return firestore.collection(TIMELINES_COLLECTION)
+                .document(userId)
+                .collection(TIMELINE_ENTRIES_COLLECTION)
+                .orderBy("creationDate", Query.Direction.DESCENDING);
+    }
+    
+    /**
+     * 타임라인이 기존 팔로잉 포스트로 채워졌는지 확인 (timelines/{userId}.seeded)
+     * fan-out 도입 전 포스트는 타임라인에 없으므로, 채워지기 전에는 타임라인만으로 피드를 만들면 안 됨
+     * @param userId 현재 사용자 ID
+     * @return 채워졌으면 true
+     */
+    public Task<Boolean> isTimelineSeeded(String userId) {
+        if (seededTimelineOwners.contains(userId)) {
+            return Tasks.forResult(true);
+        }
+        return firestore.collection(TIMELINES_COLLECTION).document(userId).get()
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    boolean seeded = Boolean.TRUE.equals(task.getResult().getBoolean("seeded"));
+                    if (seeded) {
+                        seededTimelineOwners.add(userId);
+                    }
+                    return seeded;
+                });
+    }
+    
+    /**
+     * 서버 함수(seedMyTimeline)로 타임라인을 기존 팔로잉 포스트로 채움
+     * 팔로잉이 많으면 시간이 걸리므로 호출 측은 기다리지 않고 기존 피드를 먼저 보여줌
+     * 이미 채우는 중이면 진행 중인 호출을 함께 기다림
+     * @param userId 현재 사용자 ID
+     * @return 채움 완료 시 성공
+     */
+    public Task<Void> seedTimeline(String userId) {
+        Task<Void> inFlight = seedingTimelines.get(userId);
+        if (inFlight != null) {
+            return inFlight;
+        }
+        Task<Void> seedTask = FirebaseFunctions.getInstance(FUNCTIONS_REGION)
+                .getHttpsCallable("seedMyTimeline")
+                .call()
+                .continueWithTask(callTask -> {
+                    seedingTimelines.remove(userId);
+                    if (!callTask.isSuccessful()) {
+                        return Tasks.<Void>forException(callTask.getException());
+                    }
+                    seededTimelineOwners.add(userId);
+                    return Tasks.<Void>forResult(null);
+                });
+        seedingTimelines.put(userId, seedTask);
+        return seedTask;
+    }
+    
+    /**
+     * 타임라인 항목을 실제 포스트로 변환 (항목 순서 유지)
+     * 삭제되었거나 신고로 숨겨진 포스트, 제한된 사용자의 포스트는 제외
+     * @param entries 타임라인 항목 문서 목록
+     * @return 포스트 목록
+     */
+    public Task<List<Post>> resolveTimelineEntries(List<DocumentSnapshot> entries) {
+        List<Task<DocumentSnapshot>> postTasks = new ArrayList<>();
+        for (DocumentSnapshot entry : entries) {
+            String postId = entry.getString("postId");
+            postTasks.add(getPostById(postId != null ? postId : entry.getId()));
         }
         
-        // hidden 필드가 false인 포스트만 가져옴 (신고로 숨겨지지 않은 것)
-        return firestore.collection(POSTS_COLLECTION)
-                .whereIn("userId", followingIds)
-                .whereEqualTo("hidden", false)
-                .orderBy("creationDate", Query.Direction.DESCENDING)
-                .limit(20);
+        return Tasks.whenAllSuccess(postTasks).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            List<Post> posts = new ArrayList<>();
+            for (Object result : task.getResult()) {
+                Post post = ((DocumentSnapshot) result).toObject(Post.class);
+                if (post != null && !post.isHidden() && !post.isAuthorRestricted()) {
+                    posts.add(post);
+                }
+            }
+            return posts;
+        });
+    }
+    
+    // 홈 피드용 포스트 가져오기 (팔로우 중인 사용자 + 인기 포스트)
+    // whereIn 제한으로 팔로잉 30명까지만 지원 - 타임라인을 채울 수 없을 때(함수 호출 실패)의 대체 경로로만 사용
+    public Query getPostsForHomeFeed(List<String> followingIds) {
+        return getFilteredPostsForHomeFeed(followingIds).limit(20);
     }
     
     // 인기 포스트 가져오기
     public Query getPopularPosts() {
-        // hidden 필드가 false인 포스트만 가져옴 (신고로 숨겨지지 않은 것)
+        // 숨겨지지 않았고 작성자가 제한되지 않은 포스트만 가져옴
         return firestore.collection(POSTS_COLLECTION)
                 .whereEqualTo("hidden", false)
+                .whereEqualTo("authorRestricted", false)
                 .orderBy("likeCount", Query.Direction.DESCENDING)
                 .limit(20);
     }
     
     /**
      * 신고된 사용자를 제외한 홈 피드용 포스트 가져오기
-     * 홈 프래그먼트에서 사용할 메소드
-     * @param followingIds 팔로우 중인 사용자 ID 목록
-     * @param restrictedUsers 제한된 사용자 ID 목록 (신고 누적으로 제한된 사용자)
-     * @return 필터링된 포스트 쿼리
+     * 제한 상태는 ReportRepository가 사용자 제한 시 포스트의 authorRestricted 필드에 반영하므로
+     * 쿼리 단계에서 제외됨 (사용자 컬렉션 조회나 클라이언트 필터링 불필요)
+     * @param followingIds 팔로우 중인 사용자 ID 목록 (최대 30개)
+     * @return 필터링된 포스트 쿼리 (limit은 호출 측에서 적용)
      */
-    public Query getFilteredPostsForHomeFeed(List<String> followingIds, List<String> restrictedUsers) {
+    public Query getFilteredPostsForHomeFeed(List<String> followingIds) {
         if (followingIds == null || followingIds.isEmpty()) {
             followingIds = new ArrayList<>();
             followingIds.add("dummy_id"); // whereIn은 비어있는 리스트를 허용하지 않음
         }
         
-        // 기본 쿼리 - 팔로우 중인 사용자의 숨겨지지 않은 포스트
-        Query baseQuery = firestore.collection(POSTS_COLLECTION)
+        return firestore.collection(POSTS_COLLECTION)
                 .whereIn("userId", followingIds)
                 .whereEqualTo("hidden", false)
+                .whereEqualTo("authorRestricted", false)
                 .orderBy("creationDate", Query.Direction.DESCENDING);
-        
-        // 제한된 사용자가 있으면 필터링
-        if (restrictedUsers != null && !restrictedUsers.isEmpty()) {
-            // Firestore에서는 whereIn과 whereNotIn을 함께 사용할 수 없어 Java에서 필터링 처리
-            // 이 경우, 클라이언트 측에서 제한된 사용자의 포스트를 필터링해야 함
-            return baseQuery;
-        }
-        
-        return baseQuery.limit(20);
     }
     
     // 특정 사용자의 모든 포스트 가져오기
@@ -227,6 +419,13 @@ public class PostRepository {
                     
                     transaction.set(mappingRef, mappingData);
                     
+                    // 위치 태그면 위치 인덱스도 같은 트랜잭션에서 갱신
+                    GeoPoint location = findLocation(Collections.singletonList(tag));
+                    if (location != null) {
+                        transaction.set(firestore.collection(POST_LOCATIONS_COLLECTION).document(postId),
+                                createLocationIndexData(postId, location));
+                    }
+                    
                     // 태그 사용 카운트 업데이트는 트랜잭션 외부에서 수행
                 }
             }
@@ -242,8 +441,8 @@ public class PostRepository {
         });
     }
     
-    // 태그 ID로 포스트 검색
-    public Task<QuerySnapshot> getPostsByTagId(String tagId) {
+    // 태그 ID로 포스트 검색 (작성일 내림차순)
+    public Task<List<Post>> getPostsByTagId(String tagId) {
         // 1. 태그-포스트 매핑에서 해당 태그가 포함된 포스트 ID 목록을 가져옴
         return firestore.collection(POST_TAGS_COLLECTION)
                 .whereEqualTo("tagId", tagId)
@@ -258,16 +457,8 @@ public class PostRepository {
                             }
                         }
                         
-                        if (postIds.isEmpty()) {
-                            // 포스트 ID가 없으면 빈 결과 반환
-                            return Tasks.forResult(task.getResult());
-                        }
-                        
-                        // 2. 포스트 ID 목록으로 포스트 가져오기
-                        return firestore.collection(POSTS_COLLECTION)
-                                .whereIn("postId", postIds)
-                                .orderBy("creationDate", Query.Direction.DESCENDING)
-                                .get();
+                        // 2. 포스트 ID 목록으로 포스트 가져오기 (30개 단위로 나누어 병렬 조회)
+                        return getPostsByIds(postIds);
                     } else {
                         return Tasks.forException(
                                 task.getException() != null ? task.getException() : 
@@ -283,153 +474,221 @@ public class PostRepository {
                 .orderBy("creationDate", Query.Direction.DESCENDING);
     }
     
-    // 복합 태그 검색 (여러 태그 조합)
+    /**
+     * 복합 태그 검색 (여러 태그 조합 - 모든 태그를 포함한 포스트)
+     * 1. 태그별 사용 횟수를 조회해 가장 드문 태그를 고름
+     * 2. 그 태그의 매핑(post_tags)만 가져와 후보 포스트 ID를 만듦
+     * 3. 후보 포스트를 가져와 나머지 태그를 모두 포함하는지 해시 집합으로 확인
+     * 전송량과 지연 시간이 가장 인기 있는 태그가 아닌 가장 드문 태그의 크기에 비례함
+     */
     public Task<List<Post>> searchPostsByMultipleTags(List<String> tagIds) {
         if (tagIds == null || tagIds.isEmpty()) {
             return Tasks.forResult(new ArrayList<>());
         }
         
-        // 1. 첫 번째 태그 ID로 포스트 ID 목록을 가져옴
-        return firestore.collection(POST_TAGS_COLLECTION)
-                .whereEqualTo("tagId", tagIds.get(0))
-                .get()
+        Set<String> requiredTagIds = new HashSet<>(tagIds);
+        return TagRepository.getInstance().getTagUseCounts(new ArrayList<>(requiredTagIds))
+                .continueWithTask(countTask -> {
+                    // 사용 횟수 조회 실패 시 요청 순서의 첫 태그부터 시작
+                    String rarestTagId = tagIds.get(0);
+                    if (countTask.isSuccessful()) {
+                        Map<String, Long> useCounts = countTask.getResult();
+                        long rarestCount = Long.MAX_VALUE;
+                        for (String tagId : requiredTagIds) {
+                            Long count = useCounts.get(tagId);
+                            long value = count != null ? count : 0;
+                            if (value < rarestCount) {
+                                rarestCount = value;
+                                rarestTagId = tagId;
+                            }
+                        }
+                    }
+                    
+                    return firestore.collection(POST_TAGS_COLLECTION)
+                            .whereEqualTo("tagId", rarestTagId)
+                            .get();
+                })
                 .continueWithTask(task -> {
                     if (!task.isSuccessful() || task.getResult() == null) {
                         return Tasks.forResult(new ArrayList<Post>());
                     }
                     
-                    List<String> commonPostIds = new ArrayList<>();
+                    List<String> candidatePostIds = new ArrayList<>();
                     for (DocumentSnapshot doc : task.getResult().getDocuments()) {
                         String postId = doc.getString("postId");
                         if (postId != null) {
-                            commonPostIds.add(postId);
+                            candidatePostIds.add(postId);
                         }
                     }
                     
-                    // 2. 다른 태그 ID들과 교집합 계산
-                    List<Task<QuerySnapshot>> tagQueries = new ArrayList<>();
-                    for (int i = 1; i < tagIds.size(); i++) {
-                        String tagId = tagIds.get(i);
-                        tagQueries.add(firestore.collection(POST_TAGS_COLLECTION)
-                                .whereEqualTo("tagId", tagId)
-                                .get());
-                    }
-                    
-                    if (tagQueries.isEmpty()) {
-                        // 태그가 하나뿐이면 바로 결과 반환
-                        if (commonPostIds.isEmpty()) {
-                            return Tasks.forResult(new ArrayList<Post>());
-                        } else {
-                            return getPostsByIds(commonPostIds);
-                        }
+                    return getPostsByIds(candidatePostIds);
+                })
+                .continueWith(task -> {
+                    List<Post> matchedPosts = new ArrayList<>();
+                    if (!task.isSuccessful()) {
+                        return matchedPosts;
                     }
                     
-                    // 3. 모든 태그 쿼리 결과를 기다림
-                    return Tasks.whenAllSuccess(tagQueries).continueWithTask(tagTask -> {
-                        if (!tagTask.isSuccessful()) {
-                            return Tasks.forResult(new ArrayList<Post>());
-                        }
-                        
-                        List<Object> results = tagTask.getResult();
-                        for (Object result : results) {
-                            QuerySnapshot querySnapshot = (QuerySnapshot) result;
-                            List<String> currentTagPostIds = new ArrayList<>();
-                            
-                            for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                                String postId = doc.getString("postId");
-                                if (postId != null) {
-                                    currentTagPostIds.add(postId);
+                    // 후보 포스트가 나머지 태그를 모두 포함하는지 확인
+                    for (Post post : task.getResult()) {
+                        Set<String> postTagIds = new HashSet<>();
+                        if (post.getTags() != null) {
+                            for (Tag tag : post.getTags()) {
+                                if (tag != null && tag.getTagId() != null) {
+                                    postTagIds.add(tag.getTagId());
                                 }
                             }
-                            
-                            // 교집합 계산
-                            commonPostIds.retainAll(currentTagPostIds);
-                            
-                            if (commonPostIds.isEmpty()) {
-                                // 교집합이 없으면 빈 결과 반환
-                                return Tasks.forResult(new ArrayList<Post>());
-                            }
                         }
-                        
-                        // 4. 공통 포스트 ID로 포스트 가져오기
-                        return getPostsByIds(commonPostIds);
-                    });
+                        if (postTagIds.containsAll(requiredTagIds)) {
+                            matchedPosts.add(post);
+                        }
+                    }
+                    return matchedPosts;
                 });
     }
     
     // 포스트 ID 목록으로 포스트 가져오기
+    // whereIn 30개 제한을 넘는 목록은 나누어 병렬 조회한 뒤 작성일 내림차순으로 병합
     private Task<List<Post>> getPostsByIds(List<String> postIds) {
-        if (postIds.isEmpty()) {
-            return Tasks.forResult(new ArrayList<>());
-        }
-        
-        return firestore.collection(POSTS_COLLECTION)
-                .whereIn("postId", postIds)
-                .orderBy("creationDate", Query.Direction.DESCENDING)
-                .get()
+        return ChunkedWhereInQuery.get(
+                        firestore.collection(POSTS_COLLECTION),
+                        "postId",
+                        postIds,
+                        ChunkedWhereInQuery.byTimestampDescending("creationDate"))
                 .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
                     List<Post> posts = new ArrayList<>();
-                    if (task.isSuccessful() && task.getResult() != null) {
-                        for (DocumentSnapshot doc : task.getResult().getDocuments()) {
-                            Post post = doc.toObject(Post.class);
-                            if (post != null) {
-                                posts.add(post);
-                            }
+                    for (DocumentSnapshot doc : task.getResult()) {
+                        Post post = doc.toObject(Post.class);
+                        if (post != null) {
+                            posts.add(post);
                         }
                     }
                     return posts;
                 });
     }
     
-    // 기존 likePost, unlikePost 메소드를 대체하는 toggleLike 메소드
+    /**
+     * 좋아요 토글
+     * 좋아요 여부는 posts/{postId}/likes/{userId} 문서로, 좋아요 수는 분산 카운터
+     * posts/{postId}/like_shards/{0..N-1} 중 임의의 샤드에 기록
+     * 트랜잭션은 사용자 본인의 좋아요 문서만 읽으므로 인기 포스트에서도 경합이 생기지 않음
+     * (포스트의 likeCount는 Cloud Function이 샤드 합계로 갱신)
+     */
     public Task<Void> toggleLike(String postId, String userId) {
         DocumentReference postRef = firestore.collection(POSTS_COLLECTION).document(postId);
+        DocumentReference likeRef = postRef.collection(LIKES_COLLECTION).document(userId);
+        DocumentReference shardRef = postRef.collection(LIKE_SHARDS_COLLECTION)
+                .document(String.valueOf(random.nextInt(LIKE_SHARD_COUNT)));
         
-        return firestore.runTransaction((Transaction.Function<Void>) transaction -> {
-            DocumentSnapshot postSnapshot = transaction.get(postRef);
-                Post post = postSnapshot.toObject(Post.class);
-            
-            if (post == null) {
-                throw new FirebaseFirestoreException("Post not found", FirebaseFirestoreException.Code.NOT_FOUND);
-            }
-            
-            boolean currentlyLiked = post.getUserLikes().contains(userId);
+        return firestore.runTransaction((Transaction.Function<Boolean>) transaction -> {
+            DocumentSnapshot likeSnapshot = transaction.get(likeRef);
+            boolean currentlyLiked = likeSnapshot.exists();
             
+            Map<String, Object> shardUpdate = new HashMap<>();
             if (currentlyLiked) {
                 // 좋아요 취소
-                transaction.update(postRef, "userLikes", FieldValue.arrayRemove(userId));
-                transaction.update(postRef, "likeCount", FieldValue.increment(-1));
-                
-                // 좋아요 알림 제거 (필요한 경우 구현)
-                // notificationRepository.removeLikeNotification(...);
+                transaction.delete(likeRef);
+                shardUpdate.put("count", FieldValue.increment(-1));
             } else {
                 // 좋아요 추가
-                transaction.update(postRef, "userLikes", FieldValue.arrayUnion(userId));
-                transaction.update(postRef, "likeCount", FieldValue.increment(1));
-                
-                // 좋아요 알림 추가 (자신의 게시물에는 보내지 않음)
-                if (!post.getUserId().equals(userId)) {
-                    UserRepository userRepo = UserRepository.getInstance();
-                    userRepo.getUserById(userId).addOnSuccessListener(likerSnapshot -> {
-                        User liker = likerSnapshot.toObject(User.class);
-                        if (liker != null) {
-                            // Notification 객체 생성
-                            Notification likeNotification = Notification.createLikeNotification(
-                                    post.getUserId(),      // 알림 받는 사람 (포스트 작성자)
-                                    liker.getUserId(),     // 알림 보낸 사람 (좋아요 누른 사람)
-                                    liker.getUsername(),   // 보낸 사람 이름
-                                    liker.getProfilePicUrl(), // 보낸 사람 프로필 사진
-                                    postId                 // 관련 포스트 ID
-                            );
-                            // sendNotificationToUser 호출
-                            notificationRepository.sendNotificationToUser(post.getUserId(), likeNotification);
-                    }
-                    });
-                   
-            }
+                Map<String, Object> likeData = new HashMap<>();
+                likeData.put("userId", userId);
+                likeData.put("postId", postId);
+                likeData.put("createdAt", FieldValue.serverTimestamp());
+                transaction.set(likeRef, likeData);
+                shardUpdate.put("count", FieldValue.increment(1));
             }
+            transaction.set(shardRef, shardUpdate, SetOptions.merge());
             
-            return null;
+            return !currentlyLiked;
+        }).continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                return Tasks.forException(task.getException());
+            }
+            if (Boolean.TRUE.equals(task.getResult())) {
+                sendLikeNotification(postId, userId);
+            }
+            return Tasks.forResult(null);
+        });
+    }
+    
+    // 좋아요 알림 전송 (자신의 게시물에는 보내지 않음) - 트랜잭션 외부에서 포스트 작성자 조회
+    private void sendLikeNotification(String postId, String userId) {
+        getPostById(postId).addOnSuccessListener(postSnapshot -> {
+            Post post = postSnapshot.toObject(Post.class);
+            if (post == null || post.getUserId() == null || post.getUserId().equals(userId)) {
+                return;
+            }
+            UserRepository.getInstance().getUserById(userId).addOnSuccessListener(likerSnapshot -> {
+                User liker = likerSnapshot.toObject(User.class);
+                if (liker != null) {
+                    Notification likeNotification = Notification.createLikeNotification(
+                            post.getUserId(),      // 알림 받는 사람 (포스트 작성자)
+                            liker.getUserId(),     // 알림 보낸 사람 (좋아요 누른 사람)
+                            liker.getUsername(),   // 보낸 사람 이름
+                            liker.getProfilePicUrl(), // 보낸 사람 프로필 사진
+                            postId                 // 관련 포스트 ID
+                    );
+                    notificationRepository.sendNotificationToUser(post.getUserId(), likeNotification);
+                }
+            });
+        });
+    }
+    
+    // 사용자가 포스트에 좋아요를 눌렀는지 확인
+    public Task<Boolean> isPostLikedByUser(String postId, String userId) {
+        return firestore.collection(POSTS_COLLECTION).document(postId)
+                .collection(LIKES_COLLECTION).document(userId)
+                .get()
+                .continueWith(task -> task.isSuccessful() && task.getResult().exists());
+    }
+    
+    // 분산 카운터 샤드 합계로 정확한 좋아요 수 계산
+    public Task<Long> getLikeCount(String postId) {
+        return firestore.collection(POSTS_COLLECTION).document(postId)
+                .collection(LIKE_SHARDS_COLLECTION)
+                .get()
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    long total = 0;
+                    for (DocumentSnapshot shard : task.getResult().getDocuments()) {
+                        Long count = shard.getLong("count");
+                        if (count != null) {
+                            total += count;
+                        }
+                    }
+                    return total;
+                });
+    }
+    
+    /**
+     * 현재 사용자의 좋아요 여부를 포스트 목록에 반영 (likedByCurrentUser)
+     * 포스트 문서에 좋아요 사용자 목록을 두지 않으므로 각 포스트의 likes/{uid} 문서를 병렬 조회
+     * @param posts 포스트 목록 (그대로 반환)
+     */
+    public Task<List<Post>> applyLikedStateForCurrentUser(List<Post> posts) {
+        if (auth.getCurrentUser() == null || posts.isEmpty()) {
+            return Tasks.forResult(posts);
+        }
+        String userId = auth.getCurrentUser().getUid();
+        
+        List<Task<Boolean>> likedTasks = new ArrayList<>();
+        for (Post post : posts) {
+            likedTasks.add(isPostLikedByUser(post.getPostId(), userId));
+        }
+        
+        return Tasks.whenAllComplete(likedTasks).continueWith(task -> {
+            for (int i = 0; i < posts.size(); i++) {
+                Task<Boolean> likedTask = likedTasks.get(i);
+                posts.get(i).setLikedByCurrentUser(
+                        likedTask.isSuccessful() && Boolean.TRUE.equals(likedTask.getResult()));
+            }
+            return posts;
         });
     }
     
@@ -514,8 +773,9 @@ public class PostRepository {
                     }
                 }
                 
-                // 2. 포스트 문서 삭제
+                // 2. 포스트 문서 및 위치 인덱스 삭제
                 transaction.delete(postRef);
+                transaction.delete(firestore.collection(POST_LOCATIONS_COLLECTION).document(postId));
             }
             
             return null;
@@ -534,6 +794,141 @@ public class PostRepository {
         });
     }
     
+    /**
+     * 위치 기반 포스트 검색 - GeoFirestore 위치 인덱스(post_locations) 사용
+     * 반경을 덮는 geohash 범위의 인덱스 문서와 그 포스트만 읽음
+     * @param latitude 중심 위도
+     * @param longitude 중심 경도
+     * @param radiusInKm 반경 (km)
+     * @return 반경 내 포스트 목록 (숨김/제한 포스트 제외, 작성일 내림차순)
+     */
+    public Task<List<Post>> getPostsNearLocation(double latitude, double longitude, double radiusInKm) {
+        TaskCompletionSource<List<String>> idsSource = new TaskCompletionSource<>();
+        List<String> postIds = new ArrayList<>();
+        GeoQuery geoQuery = geoFirestore.queryAtLocation(new GeoPoint(latitude, longitude), radiusInKm);
+        geoQuery.addGeoQueryEventListener(new GeoQueryEventListener() {
+            @Override
+            public void onKeyEntered(String documentID, GeoPoint location) {
+                postIds.add(documentID);
+            }
+            
+            @Override
+            public void onKeyExited(String documentID) {
+                postIds.remove(documentID);
+            }
+            
+            @Override
+            public void onKeyMoved(String documentID, GeoPoint location) {
+                // 포스트 위치는 변경되지 않음
+            }
+            
+            @Override
+            public void onGeoQueryReady() {
+                // 1회성 조회이므로 초기 결과가 모이면 리스너 해제
+                geoQuery.removeAllListeners();
+                idsSource.trySetResult(new ArrayList<>(postIds));
+            }
+            
+            @Override
+            public void onGeoQueryError(Exception exception) {
+                geoQuery.removeAllListeners();
+                idsSource.trySetException(exception);
+            }
+        });
+        
+        return idsSource.getTask()
+                .onSuccessTask(this::getPostsByIds)
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    return excludeHiddenPosts(task.getResult());
+                });
+    }
+    
+    /**
+     * 지도 타일 조회 결과
+     */
+    public static class TilePosts {
+        public final List<Post> posts;
+        public final boolean truncated; // limit에 걸려 타일의 일부 포스트만 포함되었으면 true
+
+        TilePosts(List<Post> posts, boolean truncated) {
+            this.posts = posts;
+            this.truncated = truncated;
+        }
+    }
+    
+    /**
+     * geohash 타일(영역) 내 포스트 조회 - 지도 화면 타일 단위 로딩용
+     * 위치 인덱스의 "g"(GeoFirestore geohash) 필드 범위 조회로 타일 안의 포스트만 읽음
+     * @param geohash 타일 geohash (길이가 짧을수록 넓은 영역)
+     * @param limit 타일당 최대 포스트 수
+     * @return 타일 내 포스트 목록 (숨김/제한 포스트 제외)과 잘림 여부
+     */
+    public Task<TilePosts> getPostsInGeohashTile(String geohash, int limit) {
+        return firestore.collection(POST_LOCATIONS_COLLECTION)
+                .orderBy("g")
+                .startAt(geohash)
+                .endAt(geohash + "~")
+                .limit(limit)
+                .get()
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        return Tasks.forException(task.getException());
+                    }
+                    List<String> postIds = new ArrayList<>();
+                    for (DocumentSnapshot doc : task.getResult().getDocuments()) {
+                        postIds.add(doc.getId());
+                    }
+                    boolean truncated = postIds.size() >= limit;
+                    return getPostsByIds(postIds).continueWith(postsTask -> {
+                        if (!postsTask.isSuccessful()) {
+                            throw postsTask.getException();
+                        }
+                        return new TilePosts(excludeHiddenPosts(postsTask.getResult()), truncated);
+                    });
+                });
+    }
+    
+    // 신고로 숨겨진 포스트와 제한된 사용자의 포스트 제외
+    private List<Post> excludeHiddenPosts(List<Post> posts) {
+        List<Post> visiblePosts = new ArrayList<>();
+        for (Post post : posts) {
+            if (!post.isHidden() && !post.isAuthorRestricted()) {
+                visiblePosts.add(post);
+            }
+        }
+        return visiblePosts;
+    }
+    
+    // 포스트 태그 중 위치 태그의 좌표 (없거나 (0,0)이면 null)
+    private GeoPoint findLocation(List<Tag> tags) {
+        for (Tag tag : tags) {
+            if (Tag.TYPE_LOCATION.equals(tag.getTagType()) && tag.getTagData() != null
+                    && tag.getTagData().get("coordinates") instanceof GeoPoint) {
+                GeoPoint geoPoint = (GeoPoint) tag.getTagData().get("coordinates");
+                if (geoPoint.getLatitude() != 0.0 || geoPoint.getLongitude() != 0.0) {
+                    return geoPoint;
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 위치 인덱스 문서 데이터 (GeoFirestore 형식: "g" geohash, "l" 좌표)
+     * 포스트와 같은 배치/트랜잭션으로 쓰기 위해 GeoFirestore.setLocation 대신 직접 계산
+     */
+    private Map<String, Object> createLocationIndexData(String postId, GeoPoint location) {
+        Map<String, Object> locationData = new HashMap<>();
+        locationData.put("postId", postId);
+        locationData.put("g", GeoHashUtils.encode(location.getLatitude(), location.getLongitude(),
+                GeoHashUtils.GEOFIRESTORE_PRECISION));
+        locationData.put("l", location);
+        return locationData;
+    }
+    
     // 장소 이름(위치 태그 이름)으로 포스트 검색 (PlaceSearchFragment 검색용)
     public Task<List<Post>> searchPostsByLocationTagName(String placeName) {
         TagRepository tagRepository = TagRepository.getInstance();
@@ -566,41 +961,60 @@ public class PostRepository {
         });
     }
     
-    // 태그 이름 일부로 포스트 검색 (부분 일치)
+    /**
+     * 태그 이름 일부로 포스트 검색 (부분 일치)
+     * 로컬 n-gram 인덱스(TagNameIndex)에서 이름에 검색어가 포함된 태그를 찾고,
+     * 인덱스가 메모리에서 정렬한 사용 횟수 상위 태그 이름으로 30개씩 나누어 포스트를 조회
+     * 인덱스가 아직 준비되지 않았으면 기존 접두사 검색으로 태그를 찾음
+     */
     public Task<List<Post>> searchPostsByTagPartial(String partialTagName) {
-        TagRepository tagRepository = TagRepository.getInstance();
-        return tagRepository.searchTagsByName(partialTagName)
-            .get()
-            .continueWithTask(task -> {
-                if (task.isSuccessful() && task.getResult() != null) {
+        TagNameIndex tagNameIndex = TagNameIndex.getInstance();
+        tagNameIndex.start();
+
+        Task<List<String>> tagNamesTask;
+        if (tagNameIndex.isReady()) {
+            List<String> tagNames = new ArrayList<>();
+            for (Tag tag : tagNameIndex.search(partialTagName, PARTIAL_TAG_MATCH_LIMIT)) {
+                tagNames.add(tag.getName());
+            }
+            tagNamesTask = Tasks.forResult(tagNames);
+        } else {
+            tagNamesTask = TagRepository.getInstance().searchTagsByName(partialTagName)
+                .limit(PARTIAL_TAG_MATCH_LIMIT)
+                .get()
+                .continueWith(task -> {
                     List<String> tagNames = new ArrayList<>();
-                    for (DocumentSnapshot tagDoc : task.getResult().getDocuments()) {
-                        String tagName = tagDoc.getString("name");
-                        if (tagName != null) {
-                            tagNames.add(tagName);
+                    if (task.isSuccessful() && task.getResult() != null) {
+                        for (DocumentSnapshot tagDoc : task.getResult().getDocuments()) {
+                            String tagName = tagDoc.getString("name");
+                            if (tagName != null) {
+                                tagNames.add(tagName);
+                            }
                         }
                     }
-                    if (tagNames.isEmpty()) {
-                        return Tasks.forResult(new ArrayList<Post>());
+                    return tagNames;
+                });
+        }
+
+        return tagNamesTask.continueWithTask(task -> {
+            List<String> tagNames = task.getResult();
+            if (tagNames.isEmpty()) {
+                return Tasks.forResult(new ArrayList<Post>());
+            }
+            // tagNames 배열에 포함된 포스트를 모두 가져온다 (30개씩 whereArrayContainsAny 후 병합)
+            return ChunkedWhereInQuery.getArrayContainsAny(
+                    firestore.collection(POSTS_COLLECTION), "tagNames", tagNames,
+                    ChunkedWhereInQuery.byTimestampDescending("creationDate"))
+                .continueWith(postTask -> {
+                    List<Post> posts = new ArrayList<>();
+                    if (postTask.isSuccessful()) {
+                        for (DocumentSnapshot doc : postTask.getResult()) {
+                            Post post = doc.toObject(Post.class);
+                            if (post != null) posts.add(post);
+                        }
                     }
-                    // tagNames 배열에 포함된 포스트를 모두 가져온다 (whereArrayContainsAny)
-                    return firestore.collection(POSTS_COLLECTION)
-                        .whereArrayContainsAny("tagNames", tagNames)
-                        .orderBy("creationDate", Query.Direction.DESCENDING)
-                        .get()
-                        .continueWith(postTask -> {
-                            List<Post> posts = new ArrayList<>();
-                            if (postTask.isSuccessful() && postTask.getResult() != null) {
-                                for (DocumentSnapshot doc : postTask.getResult().getDocuments()) {
-                                    Post post = doc.toObject(Post.class);
-                                    if (post != null) posts.add(post);
-                                }
-                            }
-                            return posts;
-                        });
-                } else {
-                    return Tasks.forResult(new ArrayList<Post>());
-                }
-            });
+                    return posts;
+                });
+        });
     }
-} 
\ No newline at end of file
+}
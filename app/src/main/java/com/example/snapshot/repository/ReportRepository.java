@@ -3,16 +3,25 @@ package com.example.snapshot.repository;
 import com.example.snapshot.model.Report;
 import com.google.android.gms.tasks.Task;
 import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 신고 기능 관련 데이터 처리를 담당하는 Repository 클래스
@@ -21,10 +30,17 @@ public class ReportRepository {
     private static final String REPORTS_COLLECTION = "reports";
     private static final String REPORTED_POSTS_COLLECTION = "reported_posts";
     private static final String REPORTED_USERS_COLLECTION = "reported_users";
+    private static final String USERS_COLLECTION = "users";
+    private static final String POSTS_COLLECTION = "posts";
+    private static final int BATCH_LIMIT = 500; // Firestore WriteBatch 최대 작업 수
     private static final String TAG = "ReportRepository";
     
     private final FirebaseFirestore firestore;
     
+    // 제한된 사용자 ID 캐시 - 스냅샷 리스너의 변경분만 반영하여 유지
+    private final Set<String> restrictedUserIds = new HashSet<>();
+    private ListenerRegistration restrictedUsersListener;
+    
     // 싱글톤 패턴
     private static ReportRepository instance;
     
@@ -202,7 +218,7 @@ public class ReportRepository {
                             updates.put("hidden", true);
                             updates.put("hiddenReason", "신고 누적으로 인한 자동 숨김 처리");
                             
-                            return firestore.collection("posts")
+                            return firestore.collection(POSTS_COLLECTION)
                                     .document(postId)
                                     .update(updates);
                         }
@@ -232,22 +248,86 @@ public class ReportRepository {
                             updates.put("restricted", true);
                             updates.put("restrictedReason", "신고 누적으로 인한 제한 조치");
                             
-                            return firestore.collection("users")
+                            return firestore.collection(USERS_COLLECTION)
                                     .document(userId)
-                                    .update(updates);
+                                    .update(updates)
+                                    .continueWithTask(updateTask -> {
+                                        if (!updateTask.isSuccessful()) {
+                                            return Tasks.forException(updateTask.getException());
+                                        }
+                                        restrictedUserIds.add(userId);
+                                        // 피드 쿼리에서 바로 제외되도록 포스트에도 제한 상태 반영
+                                        return markPostsAuthorRestricted(userId);
+                                    });
                         }
                     }
                     return Tasks.forResult(null);
                 });
     }
     
+    /**
+     * 제한된 사용자가 작성한 모든 포스트에 authorRestricted 플래그 설정
+     * WriteBatch 500개 제한에 맞춰 나누어 커밋
+     * @param userId 제한된 사용자 ID
+     * @return Task<Void>
+     */
+    private Task<Void> markPostsAuthorRestricted(String userId) {
+        return firestore.collection(POSTS_COLLECTION)
+                .whereEqualTo("userId", userId)
+                .get()
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        return Tasks.forException(task.getException());
+                    }
+                    
+                    List<DocumentSnapshot> documents = task.getResult().getDocuments();
+                    List<Task<Void>> commits = new ArrayList<>();
+                    for (int i = 0; i < documents.size(); i += BATCH_LIMIT) {
+                        WriteBatch batch = firestore.batch();
+                        for (DocumentSnapshot document : documents.subList(i, Math.min(i + BATCH_LIMIT, documents.size()))) {
+                            batch.update(document.getReference(), "authorRestricted", true);
+                        }
+                        commits.add(batch.commit());
+                    }
+                    return Tasks.whenAll(commits);
+                });
+    }
+    
+    /**
+     * 제한된 사용자 ID 집합 (캐시)
+     * 최초 호출 시 스냅샷 리스너를 등록하고, 이후에는 변경분만 반영되므로
+     * 피드를 새로고침할 때마다 사용자 컬렉션을 다시 조회하지 않음
+     * @return 읽기 전용 제한 사용자 ID 집합
+     */
+    public Set<String> getRestrictedUserIds() {
+        if (restrictedUsersListener == null) {
+            restrictedUsersListener = firestore.collection(USERS_COLLECTION)
+                    .whereEqualTo("restricted", true)
+                    .addSnapshotListener((snapshots, e) -> {
+                        if (e != null || snapshots == null) {
+                            android.util.Log.e(TAG, "Restricted users listener failed", e);
+                            return;
+                        }
+                        for (DocumentChange change : snapshots.getDocumentChanges()) {
+                            String id = change.getDocument().getId();
+                            if (change.getType() == DocumentChange.Type.REMOVED) {
+                                restrictedUserIds.remove(id);
+                            } else {
+                                restrictedUserIds.add(id);
+                            }
+                        }
+                    });
+        }
+        return Collections.unmodifiableSet(restrictedUserIds);
+    }
+    
     /**
      * 이 사용자가 신고로 인해 제한된 상태인지 확인
      * @param userId 사용자 ID
      * @return 제한 상태 (true/false)
      */
     public Task<Boolean> isUserRestricted(String userId) {
-        return firestore.collection("users")
+        return firestore.collection(USERS_COLLECTION)
                 .document(userId)
                 .get()
                 .continueWith(task -> {
@@ -0,0 +1,212 @@
+package com.example.snapshot.repository;
+
+import android.util.Log;
+
+import com.example.snapshot.model.Tag;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 태그 이름 부분 검색용 로컬 n-gram 인덱스
+ * tags / tag_usage 컬렉션 스냅샷 리스너의 변경분으로 갱신되며, 검색과 사용 횟수 순위 정렬은 네트워크 없이 메모리에서 처리
+ * 한글은 음절 단위 문자이므로 1~3글자 n-gram으로 중간 일치("카페" -> "스타벅스카페")도 찾을 수 있음
+ */
+public class TagNameIndex {
+    private static final String TAGS_COLLECTION = "tags";
+    private static final String TAG_USAGE_COLLECTION = "tag_usage";
+    private static final String TAG = "TagNameIndex";
+    private static final int MAX_GRAM = 3;
+
+    private final FirebaseFirestore firestore;
+    private final Map<String, Tag> tagsById = new HashMap<>();
+    private final Map<String, String> normalizedNames = new HashMap<>(); // tagId -> 정규화된 이름
+    private final Map<String, Set<String>> postings = new HashMap<>();   // n-gram -> tagId 집합
+    private final Map<String, Long> useCounts = new HashMap<>();         // tagId -> tag_usage 사용 횟수
+    private ListenerRegistration registration;
+    private ListenerRegistration usageRegistration;
+    private boolean tagsLoaded = false;
+    private boolean useCountsLoaded = false;
+
+    // 싱글톤 패턴
+    private static TagNameIndex instance;
+
+    public static synchronized TagNameIndex getInstance() {
+        if (instance == null) {
+            instance = new TagNameIndex();
+        }
+        return instance;
+    }
+
+    private TagNameIndex() {
+        firestore = FirebaseFirestore.getInstance();
+    }
+
+    // 인덱스 구축 시작 (이미 시작했으면 무시)
+    public synchronized void start() {
+        if (registration != null) {
+            return;
+        }
+        registration = firestore.collection(TAGS_COLLECTION)
+                .addSnapshotListener((snapshots, e) -> {
+                    if (e != null || snapshots == null) {
+                        Log.e(TAG, "Tag index listener failed", e);
+                        return;
+                    }
+                    applyChanges(snapshots.getDocumentChanges());
+                });
+        usageRegistration = firestore.collection(TAG_USAGE_COLLECTION)
+                .addSnapshotListener((snapshots, e) -> {
+                    if (e != null || snapshots == null) {
+                        Log.e(TAG, "Tag usage listener failed", e);
+                        return;
+                    }
+                    applyUsageChanges(snapshots.getDocumentChanges());
+                });
+    }
+
+    // 태그와 사용 횟수의 첫 스냅샷이 모두 반영되어 검색 가능한 상태인지 여부
+    public synchronized boolean isReady() {
+        return tagsLoaded && useCountsLoaded;
+    }
+
+    private synchronized void applyChanges(List<DocumentChange> changes) {
+        for (DocumentChange change : changes) {
+            String tagId = change.getDocument().getId();
+            removeFromIndex(tagId);
+            if (change.getType() != DocumentChange.Type.REMOVED) {
+                Tag tag = change.getDocument().toObject(Tag.class);
+                if (tag.getTagId() == null) {
+                    tag.setTagId(tagId);
+                }
+                addToIndex(tagId, tag);
+            }
+        }
+        tagsLoaded = true;
+    }
+
+    private synchronized void applyUsageChanges(List<DocumentChange> changes) {
+        for (DocumentChange change : changes) {
+            String tagId = change.getDocument().getId();
+            Long useCount = change.getDocument().getLong("useCount");
+            if (change.getType() == DocumentChange.Type.REMOVED || useCount == null) {
+                useCounts.remove(tagId);
+            } else {
+                useCounts.put(tagId, useCount);
+            }
+        }
+        useCountsLoaded = true;
+    }
+
+    private void addToIndex(String tagId, Tag tag) {
+        String name = normalize(tag.getName());
+        if (name.isEmpty()) {
+            return;
+        }
+        tagsById.put(tagId, tag);
+        normalizedNames.put(tagId, name);
+        for (String gram : grams(name)) {
+            Set<String> ids = postings.get(gram);
+            if (ids == null) {
+                ids = new HashSet<>();
+                postings.put(gram, ids);
+            }
+            ids.add(tagId);
+        }
+    }
+
+    private void removeFromIndex(String tagId) {
+        String name = normalizedNames.remove(tagId);
+        tagsById.remove(tagId);
+        if (name == null) {
+            return;
+        }
+        for (String gram : grams(name)) {
+            Set<String> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(tagId);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /**
+     * 이름에 검색어가 포함된 태그를 사용 횟수 내림차순으로 검색
+     * @param query 검색어 (대소문자, 공백 무시)
+     * @param limit 최대 결과 수
+     * @return 사용 횟수 상위 limit개 태그 (같으면 이름순)
+     */
+    public synchronized List<Tag> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 검색어의 n-gram 포스팅 중 가장 작은 것부터 교집합
+        int gramLength = Math.min(MAX_GRAM, normalizedQuery.length());
+        List<Set<String>> queryPostings = new ArrayList<>();
+        for (int i = 0; i + gramLength <= normalizedQuery.length(); i++) {
+            Set<String> ids = postings.get(normalizedQuery.substring(i, i + gramLength));
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            queryPostings.add(ids);
+        }
+        Collections.sort(queryPostings, (a, b) -> Integer.compare(a.size(), b.size()));
+
+        Set<String> candidates = new HashSet<>(queryPostings.get(0));
+        for (int i = 1; i < queryPostings.size() && !candidates.isEmpty(); i++) {
+            candidates.retainAll(queryPostings.get(i));
+        }
+
+        // n-gram 일치 후 실제 부분 문자열 포함 여부 확인
+        List<String> matchedIds = new ArrayList<>();
+        for (String tagId : candidates) {
+            String name = normalizedNames.get(tagId);
+            if (name != null && name.contains(normalizedQuery)) {
+                matchedIds.add(tagId);
+            }
+        }
+
+        Collections.sort(matchedIds, (a, b) -> {
+            int byUseCount = Long.compare(getUseCount(b), getUseCount(a));
+            return byUseCount != 0 ? byUseCount : normalizedNames.get(a).compareTo(normalizedNames.get(b));
+        });
+        List<Tag> results = new ArrayList<>();
+        for (int i = 0; i < matchedIds.size() && i < limit; i++) {
+            results.add(tagsById.get(matchedIds.get(i)));
+        }
+        return results;
+    }
+
+    private long getUseCount(String tagId) {
+        Long useCount = useCounts.get(tagId);
+        return useCount != null ? useCount : 0L;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT).replaceAll("\\s+", "");
+    }
+
+    // 1 ~ MAX_GRAM 길이의 모든 n-gram
+    private static Set<String> grams(String name) {
+        Set<String> grams = new HashSet<>();
+        for (int n = 1; n <= MAX_GRAM; n++) {
+            for (int i = 0; i + n <= name.length(); i++) {
+                grams.add(name.substring(i, i + n));
+            }
+        }
+        return grams;
+    }
+}
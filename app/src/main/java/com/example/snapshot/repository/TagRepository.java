@@ -1,7 +1,11 @@
 package com.example.snapshot.repository;
 
+import android.os.Handler;
+import android.os.Looper;
+
 import com.example.snapshot.model.Tag;
 import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
 import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
@@ -9,6 +13,7 @@ import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
 import com.google.firebase.firestore.GeoPoint;
 import com.google.firebase.firestore.WriteBatch;
 import com.google.firebase.Timestamp;
@@ -28,10 +33,18 @@ public class TagRepository {
     private static final String SAVED_TAGS_COLLECTION = "saved_tags";
     private static final String TAG_USAGE_COLLECTION = "tag_usage";
     private static final String TAG = "TagRepository";
+    private static final int BATCH_LIMIT = 500; // Firestore WriteBatch 최대 작업 수
+    private static final long USE_COUNT_FLUSH_DELAY_MS = 300; // 사용 횟수 증가 요청을 모으는 시간
     
     private final FirebaseFirestore firestore;
     private final GeoFirestore geoFirestore;
     
+    // 커밋 대기 중인 태그별 사용 횟수 증가분
+    private final Map<String, Long> pendingUseCounts = new HashMap<>();
+    private final List<TaskCompletionSource<Void>> pendingUseCountWaiters = new ArrayList<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private boolean useCountFlushScheduled = false;
+    
     // 싱글톤 패턴
     private static TagRepository instance;
     
@@ -102,36 +115,112 @@ public class TagRepository {
         return batch.commit();
     }
     
-    // 태그 사용 횟수 증가
+    /**
+     * 태그 사용 횟수 증가
+     * 읽기 없이 merge + increment로 기록하며, 짧은 시간 안에 들어온 요청은 태그별로 합산해
+     * 하나의 배치로 커밋함 (인기 태그에 동시 요청이 몰려도 읽기 없이, 유실 없이 반영)
+     * @param tagId 태그 ID
+     * @return 해당 증가분이 커밋되면 완료되는 Task
+     */
     public Task<Void> incrementTagUseCount(String tagId) {
         if (tagId == null || tagId.isEmpty()) {
-            // Log.e(TAG, "incrementTagUseCount: tagId가 null이거나 비어있습니다."); // 로그 추가 가능
             return Tasks.forException(new IllegalArgumentException("Tag ID는 null이거나 비어있을 수 없습니다."));
         }
-        DocumentReference usageRef = firestore.collection(TAG_USAGE_COLLECTION).document(tagId);
-        return usageRef.get().continueWithTask(task -> {
-            if (task.isSuccessful()) {
-                DocumentSnapshot document = task.getResult();
-                if (document.exists()) {
-                    // 문서가 존재하면 useCount 증가
-                    // Log.d(TAG, "incrementTagUseCount: 기존 문서 업데이트 - " + tagId); // 로그 추가 가능
-                    return usageRef.update("useCount", FieldValue.increment(1));
+        
+        TaskCompletionSource<Void> completion = new TaskCompletionSource<>();
+        synchronized (pendingUseCounts) {
+            Long pending = pendingUseCounts.get(tagId);
+            pendingUseCounts.put(tagId, pending != null ? pending + 1 : 1L);
+            pendingUseCountWaiters.add(completion);
+            if (!useCountFlushScheduled) {
+                useCountFlushScheduled = true;
+                mainHandler.postDelayed(this::flushTagUseCounts, USE_COUNT_FLUSH_DELAY_MS);
+            }
+        }
+        return completion.getTask();
+    }
+    
+    // 대기 중인 태그 사용 횟수 증가분을 태그별 합산 값으로 커밋 (배치당 최대 500개)
+    private void flushTagUseCounts() {
+        Map<String, Long> increments;
+        List<TaskCompletionSource<Void>> waiters;
+        synchronized (pendingUseCounts) {
+            increments = new HashMap<>(pendingUseCounts);
+            waiters = new ArrayList<>(pendingUseCountWaiters);
+            pendingUseCounts.clear();
+            pendingUseCountWaiters.clear();
+            useCountFlushScheduled = false;
+        }
+        
+        List<Task<Void>> commits = new ArrayList<>();
+        WriteBatch batch = firestore.batch();
+        int operations = 0;
+        for (Map.Entry<String, Long> entry : increments.entrySet()) {
+            addUseCountIncrement(batch, entry.getKey(), entry.getValue());
+            if (++operations == BATCH_LIMIT) {
+                commits.add(batch.commit());
+                batch = firestore.batch();
+                operations = 0;
+            }
+        }
+        if (operations > 0) {
+            commits.add(batch.commit());
+        }
+        
+        Tasks.whenAll(commits).addOnCompleteListener(task -> {
+            for (TaskCompletionSource<Void> waiter : waiters) {
+                if (task.isSuccessful()) {
+                    waiter.trySetResult(null);
                 } else {
-                    // 문서가 존재하지 않으면 useCount: 1로 새로 생성
-                    // Log.d(TAG, "incrementTagUseCount: 새 문서 생성 - " + tagId); // 로그 추가 가능
-                    Map<String, Object> initialUsage = new HashMap<>();
-                    initialUsage.put("useCount", 1L); // Firestore는 정수를 Long으로 처리
-                    // 필요하다면 다른 초기 필드도 여기에 추가 가능 (예: tagName, 최초 사용일 등)
-                    return usageRef.set(initialUsage);
+                    waiter.trySetException(task.getException());
                 }
-            } else {
-                // .get() 실패
-                // Log.e(TAG, "incrementTagUseCount: usageRef.get() 실패 - " + tagId, task.getException()); // 로그 추가 가능
-                return Tasks.forException(task.getException());
             }
         });
     }
     
+    /**
+     * 태그 사용 횟수 증가를 배치에 추가 (읽기 없이 merge + increment)
+     * 다른 쓰기와 함께 원자적으로 커밋할 때 사용
+     * @param batch 쓰기 배치
+     * @param tagId 태그 ID
+     */
+    public void incrementTagUseCount(WriteBatch batch, String tagId) {
+        if (tagId == null || tagId.isEmpty()) {
+            return;
+        }
+        addUseCountIncrement(batch, tagId, 1);
+    }
+    
+    private void addUseCountIncrement(WriteBatch batch, String tagId, long amount) {
+        Map<String, Object> usageUpdate = new HashMap<>();
+        usageUpdate.put("useCount", FieldValue.increment(amount));
+        batch.set(firestore.collection(TAG_USAGE_COLLECTION).document(tagId), usageUpdate, SetOptions.merge());
+    }
+    
+    /**
+     * 여러 태그의 사용 횟수 조회 (tag_usage 문서 병렬 조회)
+     * @param tagIds 태그 ID 목록
+     * @return 태그 ID별 사용 횟수 (문서가 없으면 0)
+     */
+    public Task<Map<String, Long>> getTagUseCounts(List<String> tagIds) {
+        List<Task<DocumentSnapshot>> usageTasks = new ArrayList<>();
+        for (String tagId : tagIds) {
+            usageTasks.add(firestore.collection(TAG_USAGE_COLLECTION).document(tagId).get());
+        }
+        
+        return Tasks.whenAllSuccess(usageTasks).continueWith(task -> {
+            if (!task.isSuccessful()) {
+                throw task.getException();
+            }
+            Map<String, Long> useCounts = new HashMap<>();
+            for (int i = 0; i < tagIds.size(); i++) {
+                Long useCount = ((DocumentSnapshot) task.getResult().get(i)).getLong("useCount");
+                useCounts.put(tagIds.get(i), useCount != null ? useCount : 0L);
+            }
+            return useCounts;
+        });
+    }
+    
     // 태그 마지막 사용일 업데이트
     public Task<Void> updateTagLastUsed(String tagId) {
         DocumentReference tagRef = firestore.collection(TAGS_COLLECTION).document(tagId);
@@ -299,6 +388,63 @@ public class TagRepository {
                 new com.google.firebase.firestore.GeoPoint(latitude, longitude), radiusInKm);
     }
     
+    /**
+     * 반경 내 위치 태그 1회 조회 - GeoFirestore 위치 인덱스(location_tags)에서 ID를 모은 뒤 태그 문서를 조회
+     * @param latitude 중심 위도
+     * @param longitude 중심 경도
+     * @param radiusInKm 반경 (km)
+     * @return 반경 내 위치 태그 목록
+     */
+    public Task<List<Tag>> getTagsNearLocation(double latitude, double longitude, double radiusInKm) {
+        TaskCompletionSource<List<String>> idsSource = new TaskCompletionSource<>();
+        List<String> tagIds = new ArrayList<>();
+        GeoQuery geoQuery = searchTagsByLocation(latitude, longitude, radiusInKm);
+        geoQuery.addGeoQueryEventListener(new GeoQueryEventListener() {
+            @Override
+            public void onKeyEntered(String documentID, GeoPoint location) {
+                tagIds.add(documentID);
+            }
+            
+            @Override
+            public void onKeyExited(String documentID) {
+                tagIds.remove(documentID);
+            }
+            
+            @Override
+            public void onKeyMoved(String documentID, GeoPoint location) {
+                // 태그 위치 변경은 1회 조회에 영향 없음
+            }
+            
+            @Override
+            public void onGeoQueryReady() {
+                // 1회성 조회이므로 초기 결과가 모이면 리스너 해제
+                geoQuery.removeAllListeners();
+                idsSource.trySetResult(new ArrayList<>(tagIds));
+            }
+            
+            @Override
+            public void onGeoQueryError(Exception exception) {
+                geoQuery.removeAllListeners();
+                idsSource.trySetException(exception);
+            }
+        });
+        
+        return idsSource.getTask()
+                .onSuccessTask(ids -> ids.isEmpty()
+                        ? Tasks.<List<DocumentSnapshot>>forResult(new ArrayList<>())
+                        : ChunkedWhereInQuery.get(firestore.collection(TAGS_COLLECTION), "tagId", ids, null))
+                .onSuccessTask(documents -> {
+                    List<Tag> tags = new ArrayList<>();
+                    for (DocumentSnapshot document : documents) {
+                        Tag tag = document.toObject(Tag.class);
+                        if (tag != null) {
+                            tags.add(tag);
+                        }
+                    }
+                    return Tasks.forResult(tags);
+                });
+    }
+    
     // 위치 기반 태그 검색 리스너 설정
     public void addGeoQueryEventListener(GeoQuery geoQuery, GeoQueryEventListener listener) {
         geoQuery.addGeoQueryEventListener(listener);
@@ -3,7 +3,6 @@ package com.example.snapshot.repository;
 import com.example.snapshot.model.User;
 import com.example.snapshot.model.Notification;
 import com.google.android.gms.tasks.Task;
-import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -213,41 +212,23 @@ public class UserRepository {
 
     // 여러 사용자 ID로 사용자 정보 목록을 가져오는 메소드 (최대 30개씩 분할 처리)
     public Task<List<User>> getUsersByIds(List<String> userIds) {
-        if (userIds == null || userIds.isEmpty()) {
-            return Tasks.forResult(new ArrayList<>());
-        }
-
-        List<Task<com.google.firebase.firestore.QuerySnapshot>> tasks = new ArrayList<>();
-        List<String> idChunk = new ArrayList<>();
-
-        for (int i = 0; i < userIds.size(); i++) {
-            idChunk.add(userIds.get(i));
-            // Firestore 'in' 쿼리는 최대 30개의 비교 값을 지원
-            if (idChunk.size() == 30 || i == userIds.size() - 1) {
-                tasks.add(firestore.collection(USERS_COLLECTION)
-                        .whereIn(com.google.firebase.firestore.FieldPath.documentId(), new ArrayList<>(idChunk))
-                        .get());
-                idChunk.clear();
-            }
-        }
-
-        return Tasks.whenAllSuccess(tasks).continueWith(task -> {
-            List<User> users = new ArrayList<>();
-            if (task.isSuccessful()) {
-                List<Object> snapshots = task.getResult();
-                for (Object snapshot : snapshots) {
-                    if (snapshot instanceof com.google.firebase.firestore.QuerySnapshot) {
-                        for (DocumentSnapshot document : ((com.google.firebase.firestore.QuerySnapshot) snapshot).getDocuments()) {
+        return ChunkedWhereInQuery.get(
+                        firestore.collection(USERS_COLLECTION),
+                        com.google.firebase.firestore.FieldPath.documentId(),
+                        userIds,
+                        null)
+                .continueWith(task -> {
+                    List<User> users = new ArrayList<>();
+                    if (task.isSuccessful()) {
+                        for (DocumentSnapshot document : task.getResult()) {
                             User user = document.toObject(User.class);
                             if (user != null) {
                                 users.add(user);
                             }
                         }
                     }
-                }
-            }
-            return users;
-        });
+                    return users;
+                });
     }
 
     // 사용자 이름으로 사용자 검색 (첫 번째 결과만)
@@ -0,0 +1,271 @@
+package com.example.snapshot.service;
+
+import android.util.Log;
+
+import com.example.snapshot.model.Post;
+import com.example.snapshot.model.Tag;
+import com.example.snapshot.repository.PostRepository;
+import com.example.snapshot.repository.TagRepository;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 온디바이스 태그 추천 엔진 (Gemini API 키가 없거나 호출이 실패/타임아웃일 때 사용)
+ * 사용자의 최근 게시물 태그, 인기 태그, 주변 위치 태그를 한 번 읽어 빈도 인덱스를 만들고
+ * 점수순으로 미리 정렬해 두므로, 추천 시에는 네트워크 없이 메모리에서 바로 반환합니다.
+ * 정렬된 상위 후보는 파일로 저장해 두고 다음 실행 때 먼저 불러오므로, 인덱스를 다시 만들기 전에도 추천할 수 있습니다.
+ */
+class LocalTagSuggester {
+    private static final String TAG = "LocalTagSuggester";
+
+    private static final int HISTORY_POST_LIMIT = 50; // 태그 사용 이력으로 볼 최근 게시물 수
+    private static final int TRENDING_TAG_LIMIT = 30;
+    private static final double NEARBY_RADIUS_KM = 1.0;
+    private static final int MAX_SUGGESTIONS = 8;
+    private static final int MAX_PER_TYPE = 3; // 유형별 최대 추천 수 (위치/제품/브랜드 등 골고루)
+    private static final int PERSISTED_TAG_LIMIT = 50; // 파일로 저장할 상위 후보 수
+
+    // 점수 가중치: 내 이력 > 주변 장소 > 전체 인기도
+    private static final double HISTORY_WEIGHT = 3.0;
+    private static final double NEARBY_WEIGHT = 2.0;
+    private static final double TRENDING_WEIGHT = 1.0;
+
+    private static final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+
+    private final PostRepository postRepository;
+    private final TagRepository tagRepository;
+    private final File snapshotFile; // 마지막으로 정렬한 상위 후보 (JSON)
+    private volatile List<Tag> rankedTags = Collections.emptyList(); // 점수순으로 정렬된 추천 후보
+
+    // 태그 하나의 빈도 정보
+    private static class Candidate {
+        final Tag tag;
+        int historyCount;
+        long useCount;
+        boolean nearby;
+
+        Candidate(Tag tag) {
+            this.tag = tag;
+        }
+
+        double score() {
+            return HISTORY_WEIGHT * historyCount
+                    + (nearby ? NEARBY_WEIGHT : 0)
+                    + TRENDING_WEIGHT * Math.log1p(useCount);
+        }
+    }
+
+    LocalTagSuggester(PostRepository postRepository, TagRepository tagRepository, File snapshotFile) {
+        this.postRepository = postRepository;
+        this.tagRepository = tagRepository;
+        this.snapshotFile = snapshotFile;
+        // 지난 실행의 후보를 미리 불러옴 (그 사이 warmUp이 끝났으면 새 인덱스를 유지)
+        ioExecutor.execute(() -> {
+            List<Tag> saved = loadSnapshot();
+            if (!saved.isEmpty() && rankedTags.isEmpty()) {
+                rankedTags = saved;
+            }
+        });
+    }
+
+    /**
+     * 추천 인덱스를 백그라운드에서 다시 만듭니다. (오프라인이면 Firestore 캐시로 구성)
+     * @param userId 현재 사용자 ID (null이면 이력 제외)
+     * @param location 현재 위치 (null이면 주변 태그 제외)
+     */
+    void warmUp(String userId, GeoPoint location) {
+        Task<QuerySnapshot> historyTask = userId != null
+                ? postRepository.getPostsByUser(userId).limit(HISTORY_POST_LIMIT).get()
+                : Tasks.forResult(null);
+        Task<QuerySnapshot> trendingTask = tagRepository.getTrendingTags(TRENDING_TAG_LIMIT).get();
+        Task<List<Tag>> nearbyTask = location != null
+                ? tagRepository.getTagsNearLocation(location.getLatitude(), location.getLongitude(), NEARBY_RADIUS_KM)
+                : Tasks.forResult(null);
+
+        // 일부 조회가 실패해도 나머지 결과로 인덱스 구성
+        Tasks.whenAllComplete(historyTask, trendingTask, nearbyTask).addOnCompleteListener(unused -> {
+            Map<String, Candidate> candidates = new HashMap<>();
+
+            if (historyTask.isSuccessful() && historyTask.getResult() != null) {
+                for (DocumentSnapshot document : historyTask.getResult().getDocuments()) {
+                    Post post = document.toObject(Post.class);
+                    if (post == null || post.getTags() == null) {
+                        continue;
+                    }
+                    for (Tag tag : post.getTags()) {
+                        Candidate candidate = getOrCreate(candidates, tag);
+                        if (candidate != null) {
+                            candidate.historyCount++;
+                        }
+                    }
+                }
+            }
+
+            if (trendingTask.isSuccessful()) {
+                for (DocumentSnapshot document : trendingTask.getResult().getDocuments()) {
+                    Tag tag = document.toObject(Tag.class);
+                    Candidate candidate = getOrCreate(candidates, tag);
+                    if (candidate != null) {
+                        candidate.useCount = Math.max(candidate.useCount, tag.getUseCount());
+                    }
+                }
+            } else {
+                Log.w(TAG, "인기 태그 조회 실패", trendingTask.getException());
+            }
+
+            if (nearbyTask.isSuccessful() && nearbyTask.getResult() != null) {
+                for (Tag tag : nearbyTask.getResult()) {
+                    Candidate candidate = getOrCreate(candidates, tag);
+                    if (candidate != null) {
+                        candidate.nearby = true;
+                        candidate.useCount = Math.max(candidate.useCount, tag.getUseCount());
+                    }
+                }
+            }
+
+            if (candidates.isEmpty()) {
+                return; // 모든 조회가 실패했으면 불러온 후보를 그대로 사용
+            }
+            List<Tag> ranked = rank(candidates);
+            rankedTags = ranked;
+            ioExecutor.execute(() -> saveSnapshot(ranked));
+            Log.d(TAG, "로컬 태그 추천 인덱스 구성 완료: 후보 " + candidates.size() + "개");
+        });
+    }
+
+    /**
+     * 미리 정렬된 후보에서 유형별로 골고루 추천합니다. (네트워크 없음)
+     * @return 추천 태그 목록 (인덱스도 저장된 후보도 없으면 빈 목록)
+     */
+    List<Tag> suggest() {
+        List<Tag> ranked = rankedTags;
+        List<Tag> result = new ArrayList<>();
+        Map<String, Integer> perType = new HashMap<>();
+        for (Tag tag : ranked) {
+            String type = tag.getTagType() != null ? tag.getTagType() : "";
+            int count = perType.containsKey(type) ? perType.get(type) : 0;
+            if (count >= MAX_PER_TYPE) {
+                continue;
+            }
+            perType.put(type, count + 1);
+            result.add(tag);
+            if (result.size() >= MAX_SUGGESTIONS) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // 같은 태그는 ID로, ID가 없으면 유형+이름으로 합침
+    private Candidate getOrCreate(Map<String, Candidate> candidates, Tag tag) {
+        if (tag == null || tag.getName() == null || tag.getName().isEmpty()) {
+            return null;
+        }
+        String key = tag.getTagId() != null
+                ? tag.getTagId()
+                : tag.getTagType() + ":" + tag.getName().toLowerCase(Locale.ROOT);
+        Candidate candidate = candidates.get(key);
+        if (candidate == null) {
+            candidate = new Candidate(tag);
+            candidates.put(key, candidate);
+        }
+        return candidate;
+    }
+
+    // 정렬된 상위 후보를 파일로 저장 (위치 태그는 주소와 좌표 포함)
+    private void saveSnapshot(List<Tag> ranked) {
+        try {
+            JSONArray array = new JSONArray();
+            for (int i = 0; i < ranked.size() && i < PERSISTED_TAG_LIMIT; i++) {
+                Tag tag = ranked.get(i);
+                JSONObject tagObj = new JSONObject();
+                tagObj.put("tagId", tag.getTagId());
+                tagObj.put("tagType", tag.getTagType());
+                tagObj.put("name", tag.getName());
+                tagObj.put("description", tag.getDescription());
+                if (Tag.TYPE_LOCATION.equals(tag.getTagType())
+                        && tag.getLatitude() != null && tag.getLongitude() != null) {
+                    tagObj.put("address", tag.getAddress());
+                    tagObj.put("latitude", tag.getLatitude());
+                    tagObj.put("longitude", tag.getLongitude());
+                }
+                array.put(tagObj);
+            }
+            File dir = snapshotFile.getParentFile();
+            if (dir != null && !dir.exists() && !dir.mkdirs()) {
+                return;
+            }
+            try (OutputStream out = new FileOutputStream(snapshotFile)) {
+                out.write(array.toString().getBytes(StandardCharsets.UTF_8));
+            }
+        } catch (JSONException | IOException e) {
+            Log.w(TAG, "로컬 태그 추천 후보 저장 실패", e);
+        }
+    }
+
+    // 저장된 후보 불러오기 (없거나 읽을 수 없으면 빈 목록)
+    private List<Tag> loadSnapshot() {
+        if (!snapshotFile.exists()) {
+            return Collections.emptyList();
+        }
+        List<Tag> tags = new ArrayList<>();
+        try (InputStream in = new FileInputStream(snapshotFile)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            JSONArray array = new JSONArray(out.toString(StandardCharsets.UTF_8.name()));
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject tagObj = array.getJSONObject(i);
+                Tag tag = new Tag(tagObj.optString("tagId", null), tagObj.optString("tagType", null),
+                        tagObj.getString("name"), tagObj.optString("description", ""));
+                if (tagObj.has("latitude") && tagObj.has("longitude")) {
+                    tag.getTagData().put("address", tagObj.optString("address", ""));
+                    tag.getTagData().put("coordinates",
+                            new GeoPoint(tagObj.getDouble("latitude"), tagObj.getDouble("longitude")));
+                }
+                tags.add(tag);
+            }
+        } catch (JSONException | IOException e) {
+            Log.w(TAG, "로컬 태그 추천 후보 불러오기 실패", e);
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(tags);
+    }
+
+    private List<Tag> rank(Map<String, Candidate> candidates) {
+        List<Candidate> sorted = new ArrayList<>(candidates.values());
+        Collections.sort(sorted, (a, b) -> Double.compare(b.score(), a.score()));
+        List<Tag> tags = new ArrayList<>(sorted.size());
+        for (Candidate candidate : sorted) {
+            tags.add(candidate.tag);
+        }
+        return Collections.unmodifiableList(tags);
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.snapshot.service;
+
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.net.Uri;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.core.app.NotificationCompat;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.snapshot.MainActivity;
+import com.example.snapshot.R;
+import com.example.snapshot.model.Post;
+import com.example.snapshot.model.User;
+import com.example.snapshot.repository.PostRepository;
+import com.example.snapshot.repository.UserRepository;
+import com.example.snapshot.utils.ImagePreparer;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.storage.StorageException;
+import com.google.firebase.storage.UploadTask;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 게시물 이미지 업로드 큐 (WorkManager)
+ * 해상도별 이미지를 재개 가능한 업로드 세션으로 올리고, 모두 완료된 뒤에만 게시물을 생성합니다.
+ * 앱이 백그라운드로 가거나 네트워크가 끊겨도 백오프 후 이어서 업로드합니다.
+ */
+public class PostUploadWorker extends Worker {
+    private static final String TAG = "PostUploadWorker";
+
+    private static final String KEY_USER_ID = "userId";
+    private static final String KEY_DRAFT_ID = "draftId";
+    private static final String PREFS_NAME = "post_uploads"; // 업로드 세션 Uri / 완료된 URL 보관
+    private static final String UPLOAD_DIR = "pending_uploads";
+    private static final String[] RENDITIONS = {
+            PostRepository.RENDITION_FULL, PostRepository.RENDITION_FEED, PostRepository.RENDITION_THUMB
+    };
+    private static final int MAX_ATTEMPTS = 10;
+    private static final int HTTP_NOT_FOUND = 404; // 업로드 세션을 찾을 수 없음
+    private static final int HTTP_GONE = 410; // 업로드 세션 만료
+    private static final String CHANNEL_ID = "post_upload_channel";
+    private static final String CHANNEL_NAME = "게시물 업로드";
+
+    private static final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+
+    private final PostRepository postRepository;
+    private final SharedPreferences prefs;
+
+    public PostUploadWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+        postRepository = PostRepository.getInstance();
+        prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * 게시물 업로드를 큐에 등록합니다.
+     * 이미지 파일과 게시물 초안을 저장한 뒤 네트워크 연결 시 실행되는 작업을 예약합니다.
+     * @param context 컨텍스트
+     * @param draft 게시물 초안 (이미지 URL과 작성자 정보는 업로드 완료 후 채워짐)
+     * @param renditions 해상도별 JPEG 데이터
+     * @return 등록 완료 Task
+     */
+    public static Task<Void> enqueue(Context context, Post draft, ImagePreparer.Renditions renditions) {
+        Context appContext = context.getApplicationContext();
+        String draftId = UUID.randomUUID().toString();
+        draft.setPostId(draftId); // 재시도 시 같은 게시물 문서를 사용하도록 ID 고정
+
+        return Tasks.call(ioExecutor, () -> {
+            writeFile(getUploadFile(appContext, draftId, PostRepository.RENDITION_FULL), renditions.full);
+            writeFile(getUploadFile(appContext, draftId, PostRepository.RENDITION_FEED), renditions.feed);
+            writeFile(getUploadFile(appContext, draftId, PostRepository.RENDITION_THUMB), renditions.thumb);
+            return null;
+        }).onSuccessTask(unused -> {
+            // 초안 쓰기는 오프라인이어도 로컬 캐시에 남으므로 서버 응답을 기다리지 않음
+            PostRepository.getInstance().savePostDraft(draft.getUserId(), draftId, draft)
+                    .addOnFailureListener(e -> Log.e(TAG, "게시물 초안 저장 실패: " + draftId, e));
+
+            Data input = new Data.Builder()
+                    .putString(KEY_USER_ID, draft.getUserId())
+                    .putString(KEY_DRAFT_ID, draftId)
+                    .build();
+            OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(PostUploadWorker.class)
+                    .setInputData(input)
+                    .setConstraints(new Constraints.Builder()
+                            .setRequiredNetworkType(NetworkType.CONNECTED)
+                            .build())
+                    .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                    .build();
+            WorkManager.getInstance(appContext)
+                    .enqueueUniqueWork("post_upload_" + draftId, ExistingWorkPolicy.KEEP, request);
+            return Tasks.forResult(null);
+        });
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String userId = getInputData().getString(KEY_USER_ID);
+        String draftId = getInputData().getString(KEY_DRAFT_ID);
+        if (userId == null || draftId == null) {
+            return Result.failure();
+        }
+
+        try {
+            // 1. 해상도별 이미지 업로드 (이미 끝난 것은 건너뛰고, 중단된 것은 세션을 이어서)
+            for (String rendition : RENDITIONS) {
+                if (prefs.getString(urlKey(draftId, rendition), null) == null) {
+                    String url = uploadRendition(draftId, rendition);
+                    prefs.edit().putString(urlKey(draftId, rendition), url).apply();
+                }
+            }
+
+            // 2. 업로드 완료 후 게시물 생성 (이전 시도에서 이미 생성됐다면 건너뜀)
+            DocumentSnapshot existing = Tasks.await(postRepository.getPostById(draftId));
+            if (!existing.exists()) {
+                DocumentSnapshot draftSnapshot = Tasks.await(postRepository.getPostDraft(userId, draftId));
+                Post post = draftSnapshot.toObject(Post.class);
+                if (post == null) {
+                    Log.w(TAG, "게시물 초안을 찾을 수 없습니다: " + draftId);
+                    return finish(userId, draftId, Result.failure());
+                }
+                post.setPostId(draftId);
+                post.setImageUrl(prefs.getString(urlKey(draftId, PostRepository.RENDITION_FULL), null));
+                post.setFeedImageUrl(prefs.getString(urlKey(draftId, PostRepository.RENDITION_FEED), null));
+                post.setThumbnailUrl(prefs.getString(urlKey(draftId, PostRepository.RENDITION_THUMB), null));
+
+                User author = Tasks.await(UserRepository.getInstance().getUserById(userId)).toObject(User.class);
+                if (author != null) {
+                    post.setUserName(author.getUsername());
+                    post.setUserProfilePic(author.getProfilePicUrl());
+                }
+                Tasks.await(postRepository.createPost(post, author));
+            }
+
+            return finish(userId, draftId, Result.success());
+        } catch (Exception e) {
+            Log.w(TAG, "게시물 업로드 실패 (시도 " + (getRunAttemptCount() + 1) + "회): " + draftId, e);
+            if (getRunAttemptCount() + 1 >= MAX_ATTEMPTS) {
+                showUploadFailedNotification(draftId);
+                return finish(userId, draftId, Result.failure());
+            }
+            return Result.retry();
+        }
+    }
+
+    // 세션 Uri가 있으면 이어서 업로드하고, 세션이 만료됐으면 다음 시도에서 처음부터 업로드
+    private String uploadRendition(String draftId, String rendition) throws Exception {
+        File file = getUploadFile(getApplicationContext(), draftId, rendition);
+        String storagePath = PostRepository.getPostImagePath(rendition, draftId + ".jpg");
+        String sessionKey = sessionKey(draftId, rendition);
+        String savedSession = prefs.getString(sessionKey, null);
+
+        UploadTask uploadTask = postRepository.uploadPostImageFile(
+                storagePath, Uri.fromFile(file), savedSession != null ? Uri.parse(savedSession) : null);
+        uploadTask.addOnProgressListener(Runnable::run, snapshot -> {
+            Uri sessionUri = snapshot.getUploadSessionUri();
+            if (sessionUri != null) {
+                prefs.edit().putString(sessionKey, sessionUri.toString()).apply();
+            }
+        });
+
+        try {
+            Tasks.await(uploadTask);
+        } catch (Exception e) {
+            // 네트워크 끊김 등은 세션을 유지해 다음 시도에서 이어서 올리고, 세션이 만료/무효일 때만 처음부터 업로드
+            if (savedSession != null && isSessionInvalid(e)) {
+                prefs.edit().remove(sessionKey).apply();
+            }
+            throw e;
+        }
+        return Tasks.await(postRepository.getPostImageDownloadUrl(storagePath)).toString();
+    }
+
+    // 업로드 세션이 만료되었거나 유효하지 않아 이어서 올릴 수 없는 오류인지 여부
+    private static boolean isSessionInvalid(Exception e) {
+        Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+        if (!(cause instanceof StorageException)) {
+            return false;
+        }
+        int httpCode = ((StorageException) cause).getHttpResultCode();
+        return httpCode == HTTP_NOT_FOUND || httpCode == HTTP_GONE;
+    }
+    
+    // 재시도를 모두 실패한 경우 사용자에게 알림 (초안과 파일은 정리되므로 다시 게시해야 함)
+    private void showUploadFailedNotification(String draftId) {
+        Context context = getApplicationContext();
+        NotificationManager notificationManager =
+                (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (notificationManager == null) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            notificationManager.createNotificationChannel(new NotificationChannel(
+                    CHANNEL_ID, CHANNEL_NAME, NotificationManager.IMPORTANCE_DEFAULT));
+        }
+        
+        Intent intent = new Intent(context, MainActivity.class);
+        intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        PendingIntent pendingIntent = PendingIntent.getActivity(
+                context, 0, intent, PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+        
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_notifications)
+                .setContentTitle("게시물 업로드 실패")
+                .setContentText("네트워크 문제로 게시물을 올리지 못했습니다. 다시 게시해 주세요.")
+                .setAutoCancel(true)
+                .setContentIntent(pendingIntent);
+        notificationManager.notify(draftId.hashCode(), builder.build());
+    }
+    
+    // 로컬 파일, 초안, 저장된 세션 정보를 정리
+    private Result finish(String userId, String draftId, Result result) {
+        SharedPreferences.Editor editor = prefs.edit();
+        for (String rendition : RENDITIONS) {
+            getUploadFile(getApplicationContext(), draftId, rendition).delete();
+            editor.remove(sessionKey(draftId, rendition)).remove(urlKey(draftId, rendition));
+        }
+        editor.apply();
+        postRepository.deletePostDraft(userId, draftId);
+        return result;
+    }
+
+    private static File getUploadFile(Context context, String draftId, String rendition) {
+        return new File(new File(context.getFilesDir(), UPLOAD_DIR), draftId + "_" + rendition + ".jpg");
+    }
+
+    private static void writeFile(File file, byte[] data) throws IOException {
+        File dir = file.getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("업로드 디렉터리를 만들 수 없습니다: " + dir);
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+    }
+
+    private static String sessionKey(String draftId, String rendition) {
+        return draftId + "_" + rendition + "_session";
+    }
+
+    private static String urlKey(String draftId, String rendition) {
+        return draftId + "_" + rendition + "_url";
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.snapshot.service;
+
+import com.example.snapshot.model.Tag;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gemini 스트리밍 응답용 증분 JSON 파서
+ * {"locations": [{...}, ...], "products": [...], ...} 형식의 응답을 조각 단위로 받아,
+ * 카테고리 배열 안의 태그 객체 하나가 닫히는 즉시 Tag로 변환합니다.
+ * 응답 앞뒤의 ```json 같은 텍스트는 무시합니다.
+ */
+class StreamingTagParser {
+
+    /**
+     * 카테고리 이름과 완성된 태그 JSON 객체로 Tag를 만드는 변환기
+     */
+    interface TagFactory {
+        Tag create(String category, JSONObject tagObject) throws JSONException;
+    }
+
+    private static final int TAG_OBJECT_DEPTH = 3; // { "category": [ { ... } ] }
+
+    private final TagFactory tagFactory;
+    private final List<Tag> tags = new ArrayList<>();
+    private final StringBuilder objectBuffer = new StringBuilder(); // 현재 태그 객체 텍스트
+    private final StringBuilder stringBuffer = new StringBuilder(); // 최상위 키 문자열
+    private String currentCategory;
+    private int depth = 0;
+    private boolean inString = false;
+    private boolean escaped = false;
+
+    StreamingTagParser(TagFactory tagFactory) {
+        this.tagFactory = tagFactory;
+    }
+
+    /**
+     * 응답 조각을 이어서 파싱합니다.
+     * @param chunk 새로 받은 응답 텍스트
+     * @return 이번 조각으로 완성된 태그 목록
+     */
+    synchronized List<Tag> feed(String chunk) {
+        List<Tag> completed = new ArrayList<>();
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            if (depth >= TAG_OBJECT_DEPTH) {
+                objectBuffer.append(c);
+            }
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                    if (depth == 1) {
+                        currentCategory = stringBuffer.toString(); // 최상위 키 = 카테고리
+                    }
+                } else if (depth == 1) {
+                    stringBuffer.append(c);
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '"':
+                    inString = true;
+                    stringBuffer.setLength(0);
+                    break;
+                case '{':
+                case '[':
+                    depth++;
+                    if (c == '{' && depth == TAG_OBJECT_DEPTH) {
+                        objectBuffer.setLength(0);
+                        objectBuffer.append(c);
+                    }
+                    break;
+                case '}':
+                case ']':
+                    if (depth == 0) {
+                        break; // JSON 바깥의 텍스트
+                    }
+                    depth--;
+                    if (c == '}' && depth == TAG_OBJECT_DEPTH - 1) {
+                        Tag tag = createTag(objectBuffer.toString());
+                        if (tag != null) {
+                            tags.add(tag);
+                            completed.add(tag);
+                        }
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+        return completed;
+    }
+
+    // 지금까지 완성된 모든 태그
+    synchronized List<Tag> getTags() {
+        return new ArrayList<>(tags);
+    }
+
+    private Tag createTag(String json) {
+        if (currentCategory == null) {
+            return null;
+        }
+        try {
+            return tagFactory.create(currentCategory, new JSONObject(json));
+        } catch (JSONException e) {
+            return null; // 잘못된 객체 하나는 건너뛰고 나머지 태그는 계속 파싱
+        }
+    }
+}
@@ -3,9 +3,13 @@ package com.example.snapshot.service;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.util.Log;
+import android.util.LruCache;
 
 import com.example.snapshot.utils.EnvConfig;
+import com.example.snapshot.utils.ImagePreparer;
 import com.example.snapshot.model.Tag;
+import com.example.snapshot.repository.PostRepository;
+import com.example.snapshot.repository.TagRepository;
 import com.google.ai.client.generativeai.GenerativeModel;
 import com.google.ai.client.generativeai.type.Content;
 import com.google.ai.client.generativeai.type.GenerateContentResponse;
@@ -16,26 +20,80 @@ import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.firebase.firestore.GeoPoint;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.Executor;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class TagSuggestionService {
     private static final String TAG = "TagSuggestionService";
     
     private final GenerativeModelFutures modelFutures;
-    private final Executor executor;
+    private final ThreadPoolExecutor executor;
+    private final File cacheDir; // 이미지 해시별 응답 JSON 디스크 캐시
+    private final LruCache<String, List<Tag>> memoryCache = new LruCache<>(MEMORY_CACHE_SIZE);
+    private final Map<String, InFlightCall> inFlightCalls = new HashMap<>(); // 이미지 해시 -> 진행 중인 API 호출
+    private final LocalTagSuggester localSuggester;
     
     // Gemini API 요청 타임아웃 (초)
     private static final long API_TIMEOUT_SECONDS = 10;
+    // 모델에 보낼 이미지 긴 변 크기 (px) - Gemini가 이미지를 768px 타일로 처리하므로 그 이상은 전송량만 늘어남
+    private static final int MODEL_IMAGE_DIMENSION = 768;
+    private static final int MEMORY_CACHE_SIZE = 20; // 메모리에 보관할 추천 결과 수
+    private static final String CACHE_DIR_NAME = "tag_suggestions";
+    private static final int MAX_DISK_CACHE_ENTRIES = 200; // 디스크에 보관할 추천 결과 수
+    private static final long MAX_DISK_CACHE_BYTES = 512 * 1024; // 디스크 캐시 최대 크기
+    private static final String LOCAL_SUGGESTIONS_FILE_NAME = "local_tag_suggestions.json"; // 로컬 추천 후보 저장 파일
+    private static final int WORKER_THREADS = 2; // 동시에 진행할 API 호출 수
+    private static final int MAX_QUEUED_REQUESTS = 2; // 대기열이 차면 가장 오래된 요청을 버림
+    
+    // 이미지에서 태그를 추출하는 프롬프트 - Gemini 1.5 모델용으로 최적화
+    private static final String PROMPT = "이 이미지를 분석해서 SNS 포스팅을 위한 태그 정보를 JSON으로 추출해주세요.\n\n" +
+            "다음 카테고리별로 태그를 자세히 추출해주세요:\n" +
+            "1. locations: 이미지에 보이는 장소나 위치 (예: 스타벅스 강남점, 한강공원, 롯데월드, 강남역 등)\n" +
+            "2. products: 이미지에 보이는 제품이나 물건 (예: 아메리카노, 맥북 프로, 아이폰, 나이키 운동화 등)\n" +
+            "3. brands: 이미지에 보이는 브랜드 (예: 애플, 스타벅스, 나이키, 삼성 등)\n" +
+            "4. prices: 이미지와 관련된 가격대 (예: 5만원대, 10만원 미만, 저가, 고가 등)\n" +
+            "5. events: 이미지에 관련된 이벤트나 활동 (예: 생일파티, 전시회, 여행, 데이트 등)\n\n" +
+            "각 카테고리별로 최대 3개까지의 태그를 추출하고, 각 태그에는 명확한 이름과 상세한 설명을 포함해주세요.\n" + 
+            "확실하지 않은 정보는 포함하지 말고, 이미지에서 명확하게 보이는 정보만 추출해주세요.\n\n" +
+            "정확히 다음 JSON 형식으로만 응답해주세요:\n" +
+            "{\n" +
+            "  \"locations\": [{\"name\": \"장소명\", \"description\": \"장소에 대한 상세 설명\"}],\n" +
+            "  \"products\": [{\"name\": \"제품명\", \"description\": \"제품에 대한 상세 설명\"}],\n" +
+            "  \"brands\": [{\"name\": \"브랜드명\", \"description\": \"브랜드에 대한 설명\"}],\n" +
+            "  \"prices\": [{\"name\": \"가격대\"}],\n" +
+            "  \"events\": [{\"name\": \"이벤트명\", \"description\": \"이벤트에 대한 설명\"}]\n" +
+            "}\n\n" +
+            "이미지에 해당 정보가 없다면 빈 배열로 표시하세요. 반드시 위 JSON 형식만 응답하고 다른 설명은 추가하지 마세요.";
     
     // 싱글톤 패턴
     private static TagSuggestionService instance;
@@ -57,17 +115,13 @@ public class TagSuggestionService {
     
     // 리소스 해제
     public void shutdown() {
-        if (executor instanceof java.util.concurrent.ExecutorService) {
-            try {
-                java.util.concurrent.ExecutorService executorService = 
-                        (java.util.concurrent.ExecutorService) executor;
-                executorService.shutdown();
-                if (!executorService.awaitTermination(1, TimeUnit.SECONDS)) {
-                    executorService.shutdownNow();
-                }
-            } catch (Exception e) {
-                Log.e(TAG, "Executor 종료 중 오류 발생", e);
+        try {
+            executor.shutdown();
+            if (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
             }
+        } catch (Exception e) {
+            Log.e(TAG, "Executor 종료 중 오류 발생", e);
         }
     }
     
@@ -77,7 +131,7 @@ public class TagSuggestionService {
         
         // API 키가 없거나 테스트 키인 경우 로그 출력
         if (apiKey == null || apiKey.isEmpty()) {
-            Log.w(TAG, "유효한 Gemini API 키가 설정되지 않았습니다. 더미 데이터를 사용합니다.");
+            Log.w(TAG, "유효한 Gemini API 키가 설정되지 않았습니다. 로컬 추천을 사용합니다.");
         }
         
         // Gemini 모델 생성 - 단순화된 설정 사용
@@ -86,153 +140,368 @@ public class TagSuggestionService {
         // Java 버전용 Gemini 모델 생성
         modelFutures = GenerativeModelFutures.from(model);
         
-        executor = Executors.newSingleThreadExecutor();
+        // 작은 고정 크기 풀 + 제한된 대기열 (가득 차면 가장 오래된 요청을 버리고 새 요청을 받음)
+        executor = new ThreadPoolExecutor(WORKER_THREADS, WORKER_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(MAX_QUEUED_REQUESTS),
+                (runnable, pool) -> {
+                    if (pool.isShutdown()) {
+                        return;
+                    }
+                    Runnable oldest = pool.getQueue().poll();
+                    if (oldest instanceof SuggestionRequest) {
+                        Log.d(TAG, "대기열이 가득 차 가장 오래된 태그 추천 요청을 로컬 추천으로 대신합니다.");
+                        ((SuggestionRequest) oldest).dropWithFallback();
+                    }
+                    pool.execute(runnable);
+                });
+        cacheDir = new File(context.getApplicationContext().getCacheDir(), CACHE_DIR_NAME);
+        localSuggester = new LocalTagSuggester(PostRepository.getInstance(), TagRepository.getInstance(),
+                new File(context.getApplicationContext().getFilesDir(), LOCAL_SUGGESTIONS_FILE_NAME));
     }
     
     /**
      * 이미지에서 태그 추천을 받습니다.
+     * 같은 이미지에 대한 호출이 이미 진행 중이면 새 API 호출 없이 그 결과를 함께 받습니다.
      * @param image 이미지 비트맵
      * @param callback 결과를 받을 콜백
+     * @return 요청 핸들 (화면을 떠나거나 다른 이미지를 선택하면 cancel() 호출)
      */
-    public void suggestTags(Bitmap image, TagSuggestionCallback callback) {
+    public SuggestionRequest suggestTags(Bitmap image, TagSuggestionCallback callback) {
+        SuggestionRequest request = new SuggestionRequest(image, callback);
         try {
-            // 무료 할당량 초과 등의 이유로 API 호출이 실패할 경우를 대비한 임시 더미 태그
-            List<Tag> fallbackTags = generateFallbackTags();
-            
             // API 키가 설정되지 않은 경우 바로 더미 데이터 반환
             String apiKey = EnvConfig.getGeminiApiKey();
             if (apiKey == null || apiKey.isEmpty()) {
-                Log.w(TAG, "유효한 API 키가 없어 더미 태그를 사용합니다.");
-                callback.onTagsGenerated(fallbackTags);
-                return;
+                Log.w(TAG, "유효한 API 키가 없어 로컬 추천 태그를 사용합니다.");
+                callback.onTagsGenerated(generateFallbackTags());
+                return request;
             }
             
-            // 이미지에서 태그를 추출하는 프롬프트 - Gemini 1.5 모델용으로 최적화
-            String prompt = "이 이미지를 분석해서 SNS 포스팅을 위한 태그 정보를 JSON으로 추출해주세요.\n\n" +
-                    "다음 카테고리별로 태그를 자세히 추출해주세요:\n" +
-                    "1. locations: 이미지에 보이는 장소나 위치 (예: 스타벅스 강남점, 한강공원, 롯데월드, 강남역 등)\n" +
-                    "2. products: 이미지에 보이는 제품이나 물건 (예: 아메리카노, 맥북 프로, 아이폰, 나이키 운동화 등)\n" +
-                    "3. brands: 이미지에 보이는 브랜드 (예: 애플, 스타벅스, 나이키, 삼성 등)\n" +
-                    "4. prices: 이미지와 관련된 가격대 (예: 5만원대, 10만원 미만, 저가, 고가 등)\n" +
-                    "5. events: 이미지에 관련된 이벤트나 활동 (예: 생일파티, 전시회, 여행, 데이트 등)\n\n" +
-                    "각 카테고리별로 최대 3개까지의 태그를 추출하고, 각 태그에는 명확한 이름과 상세한 설명을 포함해주세요.\n" + 
-                    "확실하지 않은 정보는 포함하지 말고, 이미지에서 명확하게 보이는 정보만 추출해주세요.\n\n" +
-                    "정확히 다음 JSON 형식으로만 응답해주세요:\n" +
-                    "{\n" +
-                    "  \"locations\": [{\"name\": \"장소명\", \"description\": \"장소에 대한 상세 설명\"}],\n" +
-                    "  \"products\": [{\"name\": \"제품명\", \"description\": \"제품에 대한 상세 설명\"}],\n" +
-                    "  \"brands\": [{\"name\": \"브랜드명\", \"description\": \"브랜드에 대한 설명\"}],\n" +
-                    "  \"prices\": [{\"name\": \"가격대\"}],\n" +
-                    "  \"events\": [{\"name\": \"이벤트명\", \"description\": \"이벤트에 대한 설명\"}]\n" +
-                    "}\n\n" +
-                    "이미지에 해당 정보가 없다면 빈 배열로 표시하세요. 반드시 위 JSON 형식만 응답하고 다른 설명은 추가하지 마세요.";
-            
             // Gemini API 호출 - 비동기로 처리
-            executor.execute(() -> {
-                try {
-                    // 이미지와 프롬프트로 Content 생성
-                    Content content = new Content.Builder()
-                            .addText(prompt)
-                            .addImage(image)
-                            .build();
-                    
-                    // API 호출 및 콜백 설정 (Java 버전용 API 사용)
-                    ListenableFuture<GenerateContentResponse> responseFuture = 
-                            modelFutures.generateContent(content);
-                    
-                    // 타임아웃 설정
-                    try {
-                        // 타임아웃 내에 응답을 받지 못하면 fallback 사용
-                        GenerateContentResponse response = responseFuture.get(API_TIMEOUT_SECONDS, TimeUnit.SECONDS);
-                        processApiResponse(response, callback, fallbackTags);
-                    } catch (Exception e) {
-                        Log.e(TAG, "Gemini API 호출 타임아웃 또는 오류 발생", e);
-                        callback.onTagsGenerated(fallbackTags);
-                    }
-                } catch (Exception e) {
-                    Log.e(TAG, "Gemini API 호출 중 오류 발생", e);
-                    callback.onTagsGenerated(fallbackTags);
-                }
-            });
+            executor.execute(request);
         } catch (Exception e) {
             Log.e(TAG, "태그 생성 준비 중 오류", e);
             callback.onError("태그 생성 중 오류가 발생했습니다: " + e.getMessage());
         }
+        return request;
     }
     
-    // API 응답 처리
-    private void processApiResponse(GenerateContentResponse response, 
-                                   TagSuggestionCallback callback,
-                                   List<Tag> fallbackTags) {
-        try {
-            // 응답에서 텍스트 추출
-            String responseText = response.getText();
-            if (responseText == null || responseText.isEmpty()) {
-                Log.e(TAG, "Gemini API로부터 빈 응답 받음");
-                callback.onTagsGenerated(fallbackTags);
+    /**
+     * 태그 추천 요청 하나
+     * 취소되면 대기열에서 빠지고, 진행 중인 호출을 기다리는 요청이 모두 취소되면 API 호출도 중단됩니다.
+     */
+    public class SuggestionRequest implements Runnable {
+        private final Bitmap image;
+        private final TagSuggestionCallback callback;
+        private volatile boolean cancelled = false;
+        private volatile InFlightCall call;
+        
+        private SuggestionRequest(Bitmap image, TagSuggestionCallback callback) {
+            this.image = image;
+            this.callback = callback;
+        }
+        
+        public void cancel() {
+            cancelled = true;
+            executor.remove(this);
+            InFlightCall currentCall = call;
+            if (currentCall != null) {
+                currentCall.removeWaiter(this);
+            }
+        }
+        
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        // 대기열에서 밀려난 요청: 호출자가 결과를 계속 기다리지 않도록 로컬 추천 태그를 대신 전달
+        private void dropWithFallback() {
+            if (cancelled) {
                 return;
             }
-            
-            // JSON 응답 추출
-            String jsonStr = extractJsonFromResponse(responseText);
-            if (jsonStr.equals("{}")) {
-                Log.e(TAG, "응답에서 유효한 JSON을 찾을 수 없음: " + responseText);
-                callback.onTagsGenerated(fallbackTags);
+            cancel();
+            callback.onTagsGenerated(generateFallbackTags());
+        }
+        
+        @Override
+        public void run() {
+            if (cancelled) {
                 return;
             }
-            
-            // JSON을 태그 리스트로 파싱
-            List<Tag> tags = parseJsonToTags(jsonStr);
-            
-            // 태그가 없으면 fallback 사용
-            if (tags.isEmpty()) {
-                Log.w(TAG, "응답에서 태그를 추출할 수 없음");
-                callback.onTagsGenerated(fallbackTags);
-            } else {
+            // 무료 할당량 초과 등의 이유로 API 호출이 실패할 경우를 대비한 로컬 추천 태그
+            List<Tag> fallbackTags = generateFallbackTags();
+            InFlightCall ownedCall = null;
+            String imageHash = null;
+            try {
+                // 모델에 맞는 크기로 축소 후, 같은 이미지의 이전 결과가 있으면 API 호출 없이 반환
+                Bitmap scaledImage = ImagePreparer.scaleDown(image, MODEL_IMAGE_DIMENSION);
+                imageHash = hashBitmap(scaledImage);
+                List<Tag> cachedTags = getCachedTags(imageHash);
+                if (cachedTags != null) {
+                    deliverTags(cachedTags);
+                    return;
+                }
+                
+                // 같은 이미지의 호출이 진행 중이면 그 결과를 함께 받음 (single-flight)
+                synchronized (inFlightCalls) {
+                    InFlightCall existing = inFlightCalls.get(imageHash);
+                    if (existing != null) {
+                        call = existing;
+                        existing.addWaiter(this);
+                        return;
+                    }
+                    ownedCall = new InFlightCall();
+                    ownedCall.addWaiter(this);
+                    call = ownedCall;
+                    inFlightCalls.put(imageHash, ownedCall);
+                }
+                if (cancelled) {
+                    ownedCall.removeWaiter(this); // 합류 직전에 취소된 경우
+                }
+                
+                // 이미지와 프롬프트로 Content 생성
+                Content content = new Content.Builder()
+                        .addText(PROMPT)
+                        .addImage(scaledImage)
+                        .build();
+                
+                // 스트리밍 응답을 받으며 태그가 하나 완성될 때마다 바로 전달
+                List<Tag> tags = streamTags(content, imageHash, ownedCall);
+                finishCall(imageHash, ownedCall, tags.isEmpty() ? fallbackTags : tags);
+            } catch (Exception e) {
+                Log.e(TAG, "Gemini API 호출 중 오류 발생", e);
+                if (ownedCall != null) {
+                    finishCall(imageHash, ownedCall, fallbackTags);
+                } else {
+                    deliverTags(fallbackTags);
+                }
+            }
+        }
+        
+        private void deliverTag(Tag tag) {
+            if (!cancelled) {
+                callback.onTagSuggested(tag);
+            }
+        }
+        
+        private void deliverTags(List<Tag> tags) {
+            if (!cancelled) {
                 callback.onTagsGenerated(tags);
             }
-        } catch (Exception e) {
-            Log.e(TAG, "응답 파싱 오류", e);
-            callback.onTagsGenerated(fallbackTags);
         }
     }
     
-    // 더미 태그 생성
-    private List<Tag> generateFallbackTags() {
-        List<Tag> fallbackTags = new ArrayList<>();
+    /**
+     * 이미지 하나에 대한 진행 중인 API 호출과 그 결과를 기다리는 요청들
+     */
+    private static class InFlightCall {
+        private final List<SuggestionRequest> waiters = new ArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicReference<Subscription> subscription = new AtomicReference<>();
         
-        // 위치 태그
-        String tagId = UUID.randomUUID().toString();
-        fallbackTags.add(Tag.createLocationTag(tagId, "카페", "서울시 강남구 역삼동", 37.501, 127.036));
+        synchronized void addWaiter(SuggestionRequest request) {
+            waiters.add(request);
+        }
+        
+        // 기다리는 요청이 모두 취소되면 스트림을 끊고 작업 스레드를 바로 풀어줌
+        void removeWaiter(SuggestionRequest request) {
+            boolean empty;
+            synchronized (this) {
+                waiters.remove(request);
+                empty = waiters.isEmpty();
+            }
+            if (empty) {
+                Subscription current = subscription.get();
+                if (current != null) {
+                    current.cancel();
+                }
+                done.countDown();
+            }
+        }
         
-        tagId = UUID.randomUUID().toString();
-        fallbackTags.add(Tag.createLocationTag(tagId, "한강공원", "서울시 서초구 반포동", 37.513, 126.997));
+        synchronized List<SuggestionRequest> getWaiters() {
+            return new ArrayList<>(waiters);
+        }
+    }
+    
+    // 호출을 목록에서 제거한 뒤 기다리던 모든 요청에 결과 전달 (제거 후에는 새 요청이 합류하지 않음)
+    private void finishCall(String imageHash, InFlightCall call, List<Tag> tags) {
+        synchronized (inFlightCalls) {
+            inFlightCalls.remove(imageHash);
+        }
+        for (SuggestionRequest waiter : call.getWaiters()) {
+            waiter.deliverTags(tags);
+        }
+    }
+    
+    // 스트리밍 API 호출 (타임아웃 내에 끝나지 않으면 그때까지 받은 태그 반환, 없으면 빈 목록)
+    private List<Tag> streamTags(Content content, String imageHash, InFlightCall call) throws InterruptedException {
+        StreamingTagParser parser = new StreamingTagParser(this::createTagFromJson);
+        StringBuilder responseText = new StringBuilder();
+        AtomicReference<Throwable> errorRef = new AtomicReference<>();
         
-        // 제품 태그
-        tagId = UUID.randomUUID().toString();
-        fallbackTags.add(Tag.createProductTag(tagId, "아메리카노", "에스프레소에 뜨거운 물을 넣은 커피", 
-                "https://coffee.example.com", 4500, "스타벅스"));
+        Publisher<GenerateContentResponse> publisher = modelFutures.generateContentStream(content);
+        publisher.subscribe(new Subscriber<GenerateContentResponse>() {
+            @Override
+            public void onSubscribe(Subscription subscription) {
+                call.subscription.set(subscription);
+                subscription.request(Long.MAX_VALUE);
+            }
+            
+            @Override
+            public void onNext(GenerateContentResponse response) {
+                String text = response.getText();
+                if (text == null) {
+                    return;
+                }
+                synchronized (responseText) {
+                    responseText.append(text);
+                }
+                for (Tag tag : parser.feed(text)) {
+                    for (SuggestionRequest waiter : call.getWaiters()) {
+                        waiter.deliverTag(tag);
+                    }
+                }
+            }
+            
+            @Override
+            public void onError(Throwable t) {
+                errorRef.set(t);
+                call.done.countDown();
+            }
+            
+            @Override
+            public void onComplete() {
+                call.done.countDown();
+            }
+        });
         
-        tagId = UUID.randomUUID().toString();
-        fallbackTags.add(Tag.createProductTag(tagId, "맥북 프로", "애플의 프로페셔널 노트북", 
-                "https://apple.com/macbook-pro", 2500000, "Apple"));
+        boolean completed = call.done.await(API_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        if (!completed) {
+            Log.e(TAG, "Gemini API 호출 타임아웃");
+            Subscription subscription = call.subscription.get();
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        } else if (errorRef.get() != null) {
+            Log.e(TAG, "Gemini API 스트리밍 오류 발생", errorRef.get());
+        }
         
-        // 브랜드 태그
-        tagId = UUID.randomUUID().toString();
-        Tag brandTag = Tag.createBrandTag(tagId, "Apple", "글로벌 테크 기업", 
-                "https://apple.com", "https://apple.com/logo.png");
-        fallbackTags.add(brandTag);
+        List<Tag> tags = parser.getTags();
+        if (tags.isEmpty()) {
+            Log.w(TAG, "응답에서 태그를 추출할 수 없음");
+            return tags;
+        }
         
-        // 가격 태그
-        tagId = UUID.randomUUID().toString();
-        fallbackTags.add(Tag.createPriceTag(tagId, "5만원대", 50000, "KRW"));
+        // 끝까지 정상적으로 받은 응답만 캐시 (모든 요청이 취소되어 중단된 경우 제외)
+        if (completed && errorRef.get() == null && !call.getWaiters().isEmpty()) {
+            String jsonStr;
+            synchronized (responseText) {
+                jsonStr = extractJsonFromResponse(responseText.toString());
+            }
+            putCachedTags(imageHash, jsonStr, tags);
+        }
+        return tags;
+    }
+    
+    // 비트맵 픽셀 내용의 SHA-256 해시 (같은 사진을 다시 선택해도 같은 키)
+    private String hashBitmap(Bitmap bitmap) throws NoSuchAlgorithmException {
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.getByteCount());
+        bitmap.copyPixelsToBuffer(buffer);
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(buffer.array());
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+    
+    // 메모리 캐시 -> 디스크 캐시 순으로 조회 (없으면 null)
+    private List<Tag> getCachedTags(String imageHash) {
+        List<Tag> tags = memoryCache.get(imageHash);
+        if (tags != null) {
+            return new ArrayList<>(tags);
+        }
         
-        // 이벤트 태그
-        tagId = UUID.randomUUID().toString();
-        fallbackTags.add(Tag.createEventTag(tagId, "신제품 출시", "새로운 제품 출시 이벤트", 
-                "2024-07-01", "2024-07-31", "https://example.com/event"));
+        File file = new File(cacheDir, imageHash + ".json");
+        if (!file.exists()) {
+            return null;
+        }
+        try (InputStream in = new FileInputStream(file)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                out.write(chunk, 0, read);
+            }
+            tags = parseJsonToTags(out.toString(StandardCharsets.UTF_8.name()));
+        } catch (IOException e) {
+            Log.w(TAG, "태그 추천 캐시 읽기 실패", e);
+            return null;
+        }
+        if (tags.isEmpty()) {
+            return null;
+        }
+        file.setLastModified(System.currentTimeMillis()); // 최근 사용 순서 갱신 (LRU)
+        memoryCache.put(imageHash, tags);
+        return new ArrayList<>(tags);
+    }
+    
+    // 파싱된 태그는 메모리에, 원본 JSON은 디스크에 저장
+    private void putCachedTags(String imageHash, String jsonStr, List<Tag> tags) {
+        memoryCache.put(imageHash, new ArrayList<>(tags));
+        if (!cacheDir.exists() && !cacheDir.mkdirs()) {
+            return;
+        }
+        try (OutputStream out = new FileOutputStream(new File(cacheDir, imageHash + ".json"))) {
+            out.write(jsonStr.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            Log.w(TAG, "태그 추천 캐시 저장 실패", e);
+        }
+        trimDiskCache();
+    }
+    
+    // 디스크 캐시가 항목 수나 크기 제한을 넘으면 가장 오래 사용하지 않은 파일부터 삭제
+    private synchronized void trimDiskCache() {
+        File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long totalBytes = 0;
+        for (File file : files) {
+            totalBytes += file.length();
+        }
+        if (files.length <= MAX_DISK_CACHE_ENTRIES && totalBytes <= MAX_DISK_CACHE_BYTES) {
+            return;
+        }
         
-        return fallbackTags;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        int remaining = files.length;
+        for (File file : files) {
+            if (remaining <= MAX_DISK_CACHE_ENTRIES && totalBytes <= MAX_DISK_CACHE_BYTES) {
+                break;
+            }
+            long length = file.length();
+            if (file.delete()) {
+                remaining--;
+                totalBytes -= length;
+            }
+        }
+    }
+    
+    // 로컬 추천 태그 (API 키가 없거나 호출이 실패/타임아웃일 때 사용, 메모리 인덱스에서 바로 반환)
+    private List<Tag> generateFallbackTags() {
+        return localSuggester.suggest();
+    }
+    
+    /**
+     * 로컬 추천 인덱스를 미리 구성합니다. (태그 추천 화면 진입 시 호출)
+     * @param userId 현재 사용자 ID
+     * @param location 현재 위치 (없으면 null)
+     */
+    public void warmUpLocalSuggestions(String userId, GeoPoint location) {
+        localSuggester.warmUp(userId, location);
     }
     
     // 응답 텍스트에서 JSON 부분만 추출
@@ -255,98 +524,22 @@ public class TagSuggestionService {
     // JSON 응답을 태그 리스트로 파싱
     private List<Tag> parseJsonToTags(String jsonResponse) {
         List<Tag> tags = new ArrayList<>();
+        String[] categories = {"locations", "products", "brands", "prices", "events"};
         
         try {
             JSONObject jsonObject = new JSONObject(jsonResponse);
-            
-            // 1. 위치 태그 파싱
-            if (jsonObject.has("locations")) {
-                JSONArray locationsArray = jsonObject.getJSONArray("locations");
-                for (int i = 0; i < locationsArray.length(); i++) {
-                    JSONObject locationObj = locationsArray.getJSONObject(i);
-                    String name = locationObj.getString("name");
-                    String description = locationObj.optString("description", name);
-                    
-                    // 위치 태그는 좌표가 없는 상태로 생성 (위도/경도는 나중에 설정 가능)
-                    // 기본 좌표는 서울 중심으로 설정
-                    String tagId = UUID.randomUUID().toString();
-                    Tag locationTag = Tag.createLocationTag(tagId, name, description, 37.5665, 126.9780);
-                    tags.add(locationTag);
-                }
-            }
-            
-            // 2. 제품 태그 파싱
-            if (jsonObject.has("products")) {
-                JSONArray productsArray = jsonObject.getJSONArray("products");
-                for (int i = 0; i < productsArray.length(); i++) {
-                    JSONObject productObj = productsArray.getJSONObject(i);
-                    String name = productObj.getString("name");
-                    String description = productObj.optString("description", name);
-                    
-                    // 가격 정보가 없는 제품 태그는 가격을 0으로 설정
-                    String tagId = UUID.randomUUID().toString();
-                    Tag productTag = Tag.createProductTag(tagId, name, description, "", 0, "");
-                    tags.add(productTag);
-                }
-            }
-            
-            // 3. 브랜드 태그 파싱
-            if (jsonObject.has("brands")) {
-                JSONArray brandsArray = jsonObject.getJSONArray("brands");
-                for (int i = 0; i < brandsArray.length(); i++) {
-                    JSONObject brandObj = brandsArray.getJSONObject(i);
-                    String name = brandObj.getString("name");
-                    String description = brandObj.optString("description", name);
-                    
-                    String tagId = UUID.randomUUID().toString();
-                    Tag brandTag = Tag.createBrandTag(tagId, name, description, "", "");
-                    tags.add(brandTag);
+            for (String category : categories) {
+                if (!jsonObject.has(category)) {
+                    continue;
                 }
-            }
-            
-            // 4. 가격 태그 파싱
-            if (jsonObject.has("prices")) {
-                JSONArray pricesArray = jsonObject.getJSONArray("prices");
-                for (int i = 0; i < pricesArray.length(); i++) {
-                    JSONObject priceObj = pricesArray.getJSONObject(i);
-                    String name = priceObj.getString("name");
-                    
-                    // 가격 태그는 임시로 현재 이름 그대로, 금액 추출을 시도해 볼 수 있음
-                    double amount = 0;
-                    String currency = "KRW";
-                    
-                    // 가격 문자열에서 숫자만 추출 시도
-                        try {
-                        String numberOnly = name.replaceAll("[^0-9]", "");
-                        if (!numberOnly.isEmpty()) {
-                            amount = Double.parseDouble(numberOnly);
-                            }
-                    } catch (Exception e) {
-                        // 숫자 추출 실패 시 0으로 유지
-                        Log.w(TAG, "가격 태그에서 숫자 추출 실패: " + name);
+                JSONArray array = jsonObject.getJSONArray(category);
+                for (int i = 0; i < array.length(); i++) {
+                    Tag tag = createTagFromJson(category, array.getJSONObject(i));
+                    if (tag != null) {
+                        tags.add(tag);
                     }
-                    
-                    String tagId = UUID.randomUUID().toString();
-                    Tag priceTag = Tag.createPriceTag(tagId, name, amount, currency);
-                    tags.add(priceTag);
-                }
-            }
-            
-            // 5. 이벤트 태그 파싱
-            if (jsonObject.has("events")) {
-                JSONArray eventsArray = jsonObject.getJSONArray("events");
-                for (int i = 0; i < eventsArray.length(); i++) {
-                    JSONObject eventObj = eventsArray.getJSONObject(i);
-                    String name = eventObj.getString("name");
-                    String description = eventObj.optString("description", name);
-                    
-                    // 이벤트 태그 (날짜 없음)
-                    String tagId = UUID.randomUUID().toString();
-                    Tag eventTag = Tag.createEventTag(tagId, name, description, "", "", "");
-                    tags.add(eventTag);
                 }
             }
-            
         } catch (JSONException e) {
             Log.e(TAG, "JSON 파싱 오류", e);
         }
@@ -354,7 +547,48 @@ public class TagSuggestionService {
         return tags;
     }
     
+    // 카테고리별 태그 객체 하나를 Tag로 변환 (알 수 없는 카테고리는 null)
+    private Tag createTagFromJson(String category, JSONObject tagObj) throws JSONException {
+        String name = tagObj.getString("name");
+        String description = tagObj.optString("description", name);
+        String tagId = UUID.randomUUID().toString();
+        
+        switch (category) {
+            case "locations":
+                // 위치 태그는 좌표가 없는 상태로 생성 (위도/경도는 나중에 설정 가능)
+                // 기본 좌표는 서울 중심으로 설정
+                return Tag.createLocationTag(tagId, name, description, 37.5665, 126.9780);
+            case "products":
+                // 가격 정보가 없는 제품 태그는 가격을 0으로 설정
+                return Tag.createProductTag(tagId, name, description, "", 0, "");
+            case "brands":
+                return Tag.createBrandTag(tagId, name, description, "", "");
+            case "prices":
+                // 가격 문자열에서 숫자만 추출 시도
+                double amount = 0;
+                try {
+                    String numberOnly = name.replaceAll("[^0-9]", "");
+                    if (!numberOnly.isEmpty()) {
+                        amount = Double.parseDouble(numberOnly);
+                    }
+                } catch (Exception e) {
+                    // 숫자 추출 실패 시 0으로 유지
+                    Log.w(TAG, "가격 태그에서 숫자 추출 실패: " + name);
+                }
+                return Tag.createPriceTag(tagId, name, amount, "KRW");
+            case "events":
+                // 이벤트 태그 (날짜 없음)
+                return Tag.createEventTag(tagId, name, description, "", "", "");
+            default:
+                return null;
+        }
+    }
+    
     public interface TagSuggestionCallback {
+        // 스트리밍 중 태그 하나가 완성될 때마다 호출 (백그라운드 스레드)
+        default void onTagSuggested(Tag tag) {
+        }
+        // 최종 태그 목록 (스트리밍으로 전달된 태그를 모두 포함)
         void onTagsGenerated(List<Tag> tags);
         void onError(String errorMessage);
     }
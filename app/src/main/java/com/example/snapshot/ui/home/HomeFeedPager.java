@@ -0,0 +1,167 @@
+package com.example.snapshot.ui.home;
+
+import com.example.snapshot.model.Post;
+import com.example.snapshot.repository.PostRepository;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 홈 피드 커서 기반 페이지 로더
+ * 이미 받은 페이지는 다시 받지 않고, startAfter 커서로 다음 페이지만 가져옴
+ */
+public class HomeFeedPager {
+    public static final int PAGE_SIZE = 20;
+
+    private final Query baseQuery;
+    private final boolean chronological; // creationDate 내림차순 쿼리인지 여부 (새 글 추가 로드 가능)
+    private final boolean timeline; // 타임라인 항목 쿼리면 true (항목을 포스트로 변환해야 함)
+
+    private DocumentSnapshot firstSnapshot; // 로드된 것 중 가장 앞(최신) 문서
+    private DocumentSnapshot lastSnapshot;  // 로드된 것 중 가장 뒤 문서 (다음 페이지 커서)
+    private boolean loading = false;
+    private boolean endReached = false;
+
+    /**
+     * 한 번의 로드 결과
+     */
+    public static class FeedPage {
+        public final List<Post> posts;
+        public final boolean replaceAll; // true면 기존 목록을 이 결과로 교체해야 함
+
+        FeedPage(List<Post> posts, boolean replaceAll) {
+            this.posts = posts;
+            this.replaceAll = replaceAll;
+        }
+    }
+
+    /**
+     * @param baseQuery 정렬까지 적용된 쿼리 (limit는 페이저가 적용)
+     * @param chronological creationDate 내림차순 쿼리면 true
+     */
+    public HomeFeedPager(Query baseQuery, boolean chronological) {
+        this(baseQuery, chronological, false);
+    }
+
+    private HomeFeedPager(Query baseQuery, boolean chronological, boolean timeline) {
+        this.baseQuery = baseQuery;
+        this.chronological = chronological;
+        this.timeline = timeline;
+    }
+
+    /**
+     * 타임라인(timelines/{userId}/entries) 쿼리용 페이저
+     * 각 페이지의 항목은 PostRepository.resolveTimelineEntries로 포스트로 변환됨
+     */
+    public static HomeFeedPager forTimeline(Query timelineQuery) {
+        return new HomeFeedPager(timelineQuery, true, true);
+    }
+
+    public boolean isLoading() {
+        return loading;
+    }
+
+    public boolean hasMore() {
+        return !endReached;
+    }
+
+    public boolean hasLoadedPages() {
+        return lastSnapshot != null;
+    }
+
+    // 첫 페이지 로드 (기존 커서 초기화)
+    public Task<FeedPage> loadFirstPage() {
+        firstSnapshot = null;
+        lastSnapshot = null;
+        endReached = false;
+        return fetch(baseQuery.limit(PAGE_SIZE), true);
+    }
+
+    // 다음 페이지 로드 - 스크롤이 끝에 가까워졌을 때 호출
+    public Task<FeedPage> loadNextPage() {
+        if (lastSnapshot == null) {
+            return loadFirstPage();
+        }
+        if (loading || endReached) {
+            return Tasks.forResult(new FeedPage(new ArrayList<>(), false));
+        }
+        return fetch(baseQuery.startAfter(lastSnapshot).limit(PAGE_SIZE), false);
+    }
+
+    /**
+     * 새로고침 - 이미 로드된 페이지는 다시 받지 않고 첫 문서보다 새로운 포스트만 가져옴
+     * 새 포스트가 한 페이지를 넘거나 시간순 쿼리가 아니면 첫 페이지부터 다시 로드
+     */
+    public Task<FeedPage> refresh() {
+        if (!chronological || firstSnapshot == null) {
+            return loadFirstPage();
+        }
+        if (loading) {
+            return Tasks.forResult(new FeedPage(new ArrayList<>(), false));
+        }
+
+        loading = true;
+        return baseQuery.endBefore(firstSnapshot).limit(PAGE_SIZE).get()
+                .continueWithTask(task -> {
+                    loading = false;
+                    if (!task.isSuccessful()) {
+                        return Tasks.forException(task.getException());
+                    }
+                    QuerySnapshot snapshot = task.getResult();
+                    if (snapshot.size() >= PAGE_SIZE) {
+                        // 중간에 빈 구간이 생길 수 있으므로 처음부터 다시 로드
+                        return loadFirstPage();
+                    }
+                    if (!snapshot.isEmpty()) {
+                        firstSnapshot = snapshot.getDocuments().get(0);
+                    }
+                    return toPosts(snapshot).continueWith(postsTask ->
+                            new FeedPage(postsTask.getResult(), false));
+                });
+    }
+
+    private Task<FeedPage> fetch(Query pageQuery, boolean replaceAll) {
+        loading = true;
+        return pageQuery.get().continueWithTask(task -> {
+            if (!task.isSuccessful()) {
+                loading = false;
+                return Tasks.forException(task.getException());
+            }
+            QuerySnapshot snapshot = task.getResult();
+            List<DocumentSnapshot> documents = snapshot.getDocuments();
+            if (!documents.isEmpty()) {
+                if (firstSnapshot == null) {
+                    firstSnapshot = documents.get(0);
+                }
+                lastSnapshot = documents.get(documents.size() - 1);
+            }
+            endReached = documents.size() < PAGE_SIZE;
+            return toPosts(snapshot).continueWith(postsTask -> {
+                loading = false;
+                return new FeedPage(postsTask.getResult(), replaceAll);
+            });
+        });
+    }
+
+    // 페이지 문서를 포스트로 변환하고 현재 사용자의 좋아요 여부 반영
+    private Task<List<Post>> toPosts(QuerySnapshot snapshot) {
+        PostRepository postRepository = PostRepository.getInstance();
+        if (timeline) {
+            return postRepository.resolveTimelineEntries(snapshot.getDocuments())
+                    .onSuccessTask(postRepository::applyLikedStateForCurrentUser);
+        }
+        List<Post> posts = new ArrayList<>();
+        for (DocumentSnapshot document : snapshot.getDocuments()) {
+            Post post = document.toObject(Post.class);
+            if (post != null) {
+                posts.add(post);
+            }
+        }
+        return postRepository.applyLikedStateForCurrentUser(posts);
+    }
+}
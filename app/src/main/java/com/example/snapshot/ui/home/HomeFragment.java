@@ -15,6 +15,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.snapshot.R;
 import com.example.snapshot.databinding.FragmentHomeBinding;
@@ -28,12 +29,15 @@ import com.example.snapshot.repository.TagRepository;
 import com.example.snapshot.ui.post.CommentActivity;
 import com.example.snapshot.ui.profile.ProfileActivity;
 import com.example.snapshot.ui.tag.TagDetailActivity;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
 
 public class HomeFragment extends Fragment {
     
@@ -46,6 +50,18 @@ public class HomeFragment extends Fragment {
     
     private List<Post> postList = new ArrayList<>();
     
+    // 커서 기반 페이지 로더와 현재 피드 소스 키
+    private HomeFeedPager feedPager;
+    private String currentFeedKey;
+    
+    private static final String FEED_KEY_TIMELINE = "timeline:";
+    private static final String FEED_KEY_FOLLOWING = "following:";
+    private static final String FEED_KEY_POPULAR = "popular";
+    private static final int WHERE_IN_LIMIT = 30;
+    
+    // 목록 끝에서 이 개수 이내로 스크롤되면 다음 페이지를 미리 가져옴
+    private static final int PREFETCH_DISTANCE = 5;
+    
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         binding = FragmentHomeBinding.inflate(inflater, container, false);
@@ -61,6 +77,7 @@ public class HomeFragment extends Fragment {
         userRepository = UserRepository.getInstance();
         tagRepository = TagRepository.getInstance();
         reportRepository = ReportRepository.getInstance();
+        reportRepository.getRestrictedUserIds(); // 제한 사용자 캐시 리스너 미리 등록
         
         // 어댑터 초기화
         setupRecyclerView();
@@ -74,9 +91,22 @@ public class HomeFragment extends Fragment {
     
     private void setupRecyclerView() {
         postAdapter = new PostAdapter(postList, getContext());
-        binding.recyclerPosts.setLayoutManager(new LinearLayoutManager(getContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        binding.recyclerPosts.setLayoutManager(layoutManager);
         binding.recyclerPosts.setAdapter(postAdapter);
         
+        // 무한 스크롤 - 끝에 가까워지면 다음 페이지 미리 로드
+        binding.recyclerPosts.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= postAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+        
         // 포스트 상호작용 리스너 설정
         postAdapter.setOnPostInteractionListener(new PostAdapter.OnPostInteractionListener() {
             @Override
@@ -155,120 +185,138 @@ public class HomeFragment extends Fragment {
     
     private void loadFollowingPosts(List<String> followingList) {
         FirebaseUser currentUser = userRepository.getCurrentUser();
-        if (currentUser != null && !followingList.contains(currentUser.getUid())) {
+        if (currentUser == null) {
+            showLoading(false);
+            return;
+        }
+        if (!followingList.contains(currentUser.getUid())) {
             followingList.add(currentUser.getUid());
         }
 
-        // Firestore에서 제한된 사용자 목록을 비동기로 가져오기
-        com.google.firebase.firestore.FirebaseFirestore.getInstance()
-            .collection("users")
-            .whereEqualTo("restricted", true)
-            .get()
-            .addOnSuccessListener(snapshot -> {
-                List<String> restrictedUsers = new ArrayList<>();
-                for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                    restrictedUsers.add(doc.getId());
+        // 팔로우 수와 무관하게 사용자 타임라인(fan-out 결과)에서 범위 조회
+        // 기존 팔로잉 포스트로 타임라인이 채워진 뒤에만 사용 (처음 한 번은 서버 함수로 채움)
+        String uid = currentUser.getUid();
+        postRepository.isTimelineSeeded(uid).addOnCompleteListener(task -> {
+            if (binding == null) {
+                return;
+            }
+            if (task.isSuccessful() && Boolean.TRUE.equals(task.getResult())) {
+                loadTimelinePosts(uid);
+                return;
+            }
+            
+            // 채우는 동안 기다리지 않고 기존 경로로 먼저 표시
+            loadLegacyFollowingPosts(followingList);
+            postRepository.seedTimeline(uid).addOnSuccessListener(aVoid -> {
+                // 아직 기존 피드를 맨 위에서 보고 있으면 바로 타임라인으로 전환 (스크롤 중이면 다음 로드부터 사용)
+                if (binding == null || currentFeedKey == null
+                        || !currentFeedKey.startsWith(FEED_KEY_FOLLOWING)
+                        || binding.recyclerPosts.canScrollVertically(-1)) {
+                    return;
                 }
-                // restrictedUsers를 활용해 게시물 쿼리 실행
-                Query query = postRepository.getFilteredPostsForHomeFeed(followingList, restrictedUsers);
-                query.get()
-                        .addOnSuccessListener(queryDocumentSnapshots -> {
-                            postList.clear();
-                            for (DocumentSnapshot document : queryDocumentSnapshots) {
-                                Post post = document.toObject(Post.class);
-                                if (post != null && !restrictedUsers.contains(post.getUserId())) {
-                                    postList.add(post);
-                                }
-                            }
-                            if (postList.isEmpty()) {
-                                showEmptyView(true);
-                            } else {
-                                showEmptyView(false);
-                            }
-                            postAdapter.notifyDataSetChanged();
-                            showLoading(false);
-                        })
-                        .addOnFailureListener(e -> {
-                            showLoading(false);
-                            Toast.makeText(getContext(), R.string.error_network, Toast.LENGTH_SHORT).show();
-                        });
-            })
-            .addOnFailureListener(e -> {
-                // 제한된 사용자 목록 가져오기 실패 시 기존 방식으로 로드
-                Query query = postRepository.getPostsForHomeFeed(followingList);
-                loadPostsFromQuery(query);
+                loadTimelinePosts(uid);
             });
+        });
+    }
+    
+    private void loadTimelinePosts(String uid) {
+        startOrRefreshFeed(FEED_KEY_TIMELINE + uid,
+                () -> HomeFeedPager.forTimeline(postRepository.getTimelineForUser(uid)));
+    }
+    
+    /**
+     * 타임라인이 아직 채워지지 않았을 때(채우는 중이거나 서버 함수 호출 실패)의 대체 경로 (whereIn 기반)
+     * whereIn은 최대 30개 값만 허용하므로 팔로잉 목록 앞쪽 30명만 사용
+     */
+    private void loadLegacyFollowingPosts(List<String> followingList) {
+        List<String> queryIds = followingList.size() > WHERE_IN_LIMIT
+                ? new ArrayList<>(followingList.subList(0, WHERE_IN_LIMIT))
+                : new ArrayList<>(followingList);
+        Query query = postRepository.getFilteredPostsForHomeFeed(queryIds);
+        startOrRefreshFeed(FEED_KEY_FOLLOWING + String.join(",", queryIds),
+                () -> new HomeFeedPager(query, true));
     }
     
     private void loadPopularPosts() {
-        com.google.firebase.firestore.FirebaseFirestore.getInstance()
-            .collection("users")
-            .whereEqualTo("restricted", true)
-            .get()
-            .addOnSuccessListener(snapshot -> {
-                List<String> restrictedUsers = new ArrayList<>();
-                for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                    restrictedUsers.add(doc.getId());
-                }
-                Query query = postRepository.getPopularPosts();
-                query.get()
-                        .addOnSuccessListener(queryDocumentSnapshots -> {
-                            postList.clear();
-                            for (DocumentSnapshot document : queryDocumentSnapshots) {
-                                Post post = document.toObject(Post.class);
-                                if (post != null && !restrictedUsers.contains(post.getUserId())) {
-                                    postList.add(post);
-                                }
-                            }
-                            if (postList.isEmpty()) {
-                                showEmptyView(true);
-                            } else {
-                                showEmptyView(false);
-                            }
-                            postAdapter.notifyDataSetChanged();
-                            showLoading(false);
-                        })
-                        .addOnFailureListener(e -> {
-                            showLoading(false);
-                            Toast.makeText(getContext(), R.string.error_network, Toast.LENGTH_SHORT).show();
-                        });
-            })
-            .addOnFailureListener(e -> {
-                Query query = postRepository.getPopularPosts();
-                loadPostsFromQuery(query);
-            });
+        startOrRefreshFeed(FEED_KEY_POPULAR,
+                () -> new HomeFeedPager(postRepository.getPopularPosts(), false));
     }
     
     /**
-     * 주어진 쿼리로 게시물 로드 (기존 방식)
+     * 피드 소스가 바뀌었으면 새 페이저로 첫 페이지를 로드하고,
+     * 같으면 이미 로드된 페이지는 두고 새 포스트만 가져옴
+     * @param feedKey 피드 소스 식별 키
+     * @param pagerFactory 새 페이저 생성
      */
-    private void loadPostsFromQuery(Query query) {
-        query.get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    postList.clear();
-                    
-                    for (DocumentSnapshot document : queryDocumentSnapshots) {
-                        Post post = document.toObject(Post.class);
-                        if (post != null) {
-                            postList.add(post);
-                        }
-                    }
-                    
-                    if (postList.isEmpty()) {
-                        showEmptyView(true);
-                    } else {
-                        showEmptyView(false);
-                    }
-                    
-                    postAdapter.notifyDataSetChanged();
-                    showLoading(false);
-                })
+    private void startOrRefreshFeed(String feedKey, Supplier<HomeFeedPager> pagerFactory) {
+        Task<HomeFeedPager.FeedPage> pageTask;
+        if (feedPager == null || !Objects.equals(feedKey, currentFeedKey)) {
+            feedPager = pagerFactory.get();
+            currentFeedKey = feedKey;
+            pageTask = feedPager.loadFirstPage();
+        } else {
+            pageTask = feedPager.refresh();
+        }
+        
+        pageTask.addOnSuccessListener(page -> applyFeedPage(page, false))
                 .addOnFailureListener(e -> {
                     showLoading(false);
                     Toast.makeText(getContext(), R.string.error_network, Toast.LENGTH_SHORT).show();
                 });
     }
     
+    // 스크롤이 끝에 가까워지면 다음 페이지 미리 로드
+    private void loadNextPage() {
+        if (feedPager == null || feedPager.isLoading() || !feedPager.hasMore()) {
+            return;
+        }
+        
+        feedPager.loadNextPage()
+                .addOnSuccessListener(page -> applyFeedPage(page, true))
+                .addOnFailureListener(e ->
+                        Toast.makeText(getContext(), R.string.error_network, Toast.LENGTH_SHORT).show());
+    }
+    
+    /**
+     * 로드된 페이지를 목록에 반영
+     * @param page 로드 결과
+     * @param append true면 목록 끝에 추가, false면 (새로고침 결과) 목록 앞에 추가
+     */
+    private void applyFeedPage(HomeFeedPager.FeedPage page, boolean append) {
+        if (binding == null) {
+            return;
+        }
+        
+        // 쿼리에서 이미 제외되지만, 제한 직후 아직 플래그가 반영되지 않은 포스트를 위해 캐시로 한 번 더 확인
+        Set<String> restrictedUsers = reportRepository.getRestrictedUserIds();
+        List<Post> visiblePosts = new ArrayList<>();
+        for (Post post : page.posts) {
+            if (!restrictedUsers.contains(post.getUserId())) {
+                visiblePosts.add(post);
+            }
+        }
+        
+        if (page.replaceAll) {
+            postAdapter.submitPosts(visiblePosts);
+        } else if (append) {
+            int insertStart = postList.size();
+            postList.addAll(visiblePosts);
+            postAdapter.notifyItemRangeInserted(insertStart, visiblePosts.size());
+        } else if (!visiblePosts.isEmpty()) {
+            postList.addAll(0, visiblePosts);
+            postAdapter.notifyItemRangeInserted(0, visiblePosts.size());
+            binding.recyclerPosts.scrollToPosition(0);
+        }
+        
+        showEmptyView(postList.isEmpty() && !feedPager.hasMore());
+        showLoading(false);
+        
+        // 페이지 전체가 필터링되어 화면이 채워지지 않으면 다음 페이지 이어서 로드
+        if (visiblePosts.isEmpty() && page.posts.size() > 0 && feedPager.hasMore()) {
+            loadNextPage();
+        }
+    }
+    
     private void toggleLike(int position) {
         FirebaseUser currentUser = userRepository.getCurrentUser();
         if (currentUser == null || position >= postList.size()) return;
@@ -278,28 +326,21 @@ public class HomeFragment extends Fragment {
         String userId = currentUser.getUid();
         
         // 로컬 UI 즉시 업데이트 (선반영)
-        boolean isLiked = post.getUserLikes().contains(userId);
-        if (isLiked) {
-                        post.getUserLikes().remove(userId);
-            post.setLikeCount(post.getLikeCount() - 1);
-        } else {
-                        post.getUserLikes().add(userId);
-            post.setLikeCount(post.getLikeCount() + 1);
-        }
-                        postAdapter.notifyItemChanged(position);
+        boolean isLiked = post.isLikedByCurrentUser();
+        post.setLikedByCurrentUser(!isLiked);
+        post.setLikeCount(post.getLikeCount() + (isLiked ? -1 : 1));
+        postAdapter.notifyItemChanged(position);
         
         // Firestore 업데이트
         postRepository.toggleLike(postId, userId)
             .addOnFailureListener(e -> {
                 // 실패 시 UI 롤백
-                if (isLiked) { // 원래 좋아요 상태였으므로 다시 추가
-                    post.getUserLikes().add(userId);
-                    post.setLikeCount(post.getLikeCount() + 1);
-                } else { // 원래 좋아요 상태 아니었으므로 다시 제거
-                    post.getUserLikes().remove(userId);
-                    post.setLikeCount(post.getLikeCount() - 1);
+                post.setLikedByCurrentUser(isLiked);
+                post.setLikeCount(post.getLikeCount() + (isLiked ? 1 : -1));
+                int currentPosition = postList.indexOf(post);
+                if (currentPosition >= 0) {
+                    postAdapter.notifyItemChanged(currentPosition);
                 }
-                postAdapter.notifyItemChanged(position);
                 Toast.makeText(getContext(), "좋아요 처리에 실패했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
             });
     }
@@ -8,6 +8,7 @@ import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -19,7 +20,9 @@ import com.example.snapshot.model.Tag;
 import com.example.snapshot.repository.UserRepository;
 import com.google.firebase.auth.FirebaseUser;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder> {
     
@@ -43,6 +46,48 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
         this.postTagSaveListener = postTagSaveListener;
     }
     
+    /**
+     * 새 포스트 목록으로 교체 - DiffUtil로 바뀐 항목만 갱신
+     * @param newPosts 새로 표시할 포스트 목록
+     */
+    public void submitPosts(List<Post> newPosts) {
+        List<Post> oldPosts = new ArrayList<>(posts);
+        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldPosts.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newPosts.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return Objects.equals(oldPosts.get(oldItemPosition).getPostId(),
+                        newPosts.get(newItemPosition).getPostId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                Post oldPost = oldPosts.get(oldItemPosition);
+                Post newPost = newPosts.get(newItemPosition);
+                return oldPost.getLikeCount() == newPost.getLikeCount()
+                        && oldPost.getCommentCount() == newPost.getCommentCount()
+                        && Objects.equals(oldPost.getCaption(), newPost.getCaption())
+                        && Objects.equals(oldPost.getImageUrl(), newPost.getImageUrl())
+                        && Objects.equals(oldPost.getFeedImageUrl(), newPost.getFeedImageUrl())
+                        && oldPost.isLikedByCurrentUser() == newPost.isLikedByCurrentUser()
+                        && Objects.equals(oldPost.getTagNames(), newPost.getTagNames());
+            }
+        });
+
+        posts.clear();
+        posts.addAll(newPosts);
+        diffResult.dispatchUpdatesTo(this);
+    }
+    
     @NonNull
     @Override
     public PostViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -109,9 +154,11 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
             }
             
             // 게시물 이미지 로드
-            if (post.getImageUrl() != null && !post.getImageUrl().isEmpty()) {
+            // 화면 너비에 맞는 가장 작은 해상도 사용
+            String imageUrl = post.getImageUrlForSize(context.getResources().getDisplayMetrics().widthPixels);
+            if (imageUrl != null && !imageUrl.isEmpty()) {
                 Glide.with(context)
-                        .load(post.getImageUrl())
+                        .load(imageUrl)
                         .placeholder(R.color.grey_light)
                         .error(R.color.grey_light)
                         .into(binding.ivPostImage);
@@ -128,8 +175,7 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
             binding.tvLikeCount.setText(likeText);
             
             // 좋아요 상태 설정
-            FirebaseUser currentUser = userRepository.getCurrentUser();
-            if (currentUser != null && post.getUserLikes().contains(currentUser.getUid())) {
+            if (post.isLikedByCurrentUser()) {
                 binding.btnLike.setImageResource(R.drawable.ic_like_filled);
                 binding.btnLike.setColorFilter(ContextCompat.getColor(context, R.color.error));
             } else {
@@ -138,13 +184,13 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
             }
             
             // 태그 설정
-            setupTags(post.getTags(), position);
+            setupTags(post.getTags());
             
             // 클릭 리스너 설정
-            setupClickListeners(position);
+            setupClickListeners();
         }
         
-        private void setupTags(List<Tag> tags, int postPosition) {
+        private void setupTags(List<Tag> tags) {
             if (tags == null || tags.isEmpty()) {
                 binding.recyclerTags.setVisibility(View.GONE);
                 return;
@@ -157,7 +203,8 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
                     new LinearLayoutManager(context, LinearLayoutManager.HORIZONTAL, false));
             
             tagAdapter.setOnTagClickListener(tagPosition -> {
-                if (listener != null) {
+                int postPosition = getAdapterPosition();
+                if (listener != null && postPosition != RecyclerView.NO_POSITION) {
                     listener.onTagClicked(postPosition, tagPosition);
                 }
             });
@@ -182,38 +229,46 @@ public class PostAdapter extends RecyclerView.Adapter<PostAdapter.PostViewHolder
             });
         }
         
-        private void setupClickListeners(int position) {
+        // 페이지 추가/새 글 삽입 시 기존 뷰홀더는 다시 바인딩되지 않으므로 클릭 시점의 위치를 사용
+        private void setupClickListeners() {
             binding.btnLike.setOnClickListener(v -> {
-                if (listener != null) {
+                int position = getAdapterPosition();
+                if (listener != null && position != RecyclerView.NO_POSITION) {
                     listener.onLikeClicked(position);
                 }
             });
             
             binding.btnComment.setOnClickListener(v -> {
-                if (listener != null) {
+                int position = getAdapterPosition();
+                if (listener != null && position != RecyclerView.NO_POSITION) {
                     listener.onCommentClicked(position);
                 }
             });
             
             binding.btnShare.setOnClickListener(v -> {
-                if (listener != null) {
+                int position = getAdapterPosition();
+                if (listener != null && position != RecyclerView.NO_POSITION) {
                     listener.onShareClicked(position);
                 }
             });
             
             binding.ivUserProfile.setOnClickListener(v -> {
-                if (listener != null) {
+                int position = getAdapterPosition();
+                if (listener != null && position != RecyclerView.NO_POSITION) {
                     listener.onUserProfileClicked(position);
                 }
             });
             
             binding.tvUserName.setOnClickListener(v -> {
-                if (listener != null) {
+                int position = getAdapterPosition();
+                if (listener != null && position != RecyclerView.NO_POSITION) {
                     listener.onUserProfileClicked(position);
                 }
             });
             
             binding.btnMoreOptions.setOnClickListener(v -> {
+                int position = getAdapterPosition();
+                if (position == RecyclerView.NO_POSITION) return;
                 androidx.appcompat.widget.PopupMenu popupMenu = new androidx.appcompat.widget.PopupMenu(context, binding.btnMoreOptions);
                 popupMenu.inflate(R.menu.menu_post_detail);
                 FirebaseUser currentUser = userRepository.getCurrentUser();
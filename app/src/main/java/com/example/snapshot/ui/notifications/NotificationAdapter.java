@@ -10,12 +10,15 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.snapshot.R;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 import de.hdodenhof.circleimageview.CircleImageView;
 
@@ -34,6 +37,49 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
         this.listener = listener;
     }
     
+    /**
+     * 목록 전체를 교체하되 DiffUtil로 바뀐 항목만 갱신 (새로고침 시 깜빡임 방지)
+     * @param newNotifications 새 알림 목록
+     */
+    public void submitNotifications(List<NotificationItem> newNotifications) {
+        List<NotificationItem> oldNotifications = new ArrayList<>(notifications);
+        DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldNotifications.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newNotifications.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                return Objects.equals(oldNotifications.get(oldItemPosition).getNotificationId(),
+                        newNotifications.get(newItemPosition).getNotificationId());
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                return isSameContent(oldNotifications.get(oldItemPosition), newNotifications.get(newItemPosition));
+            }
+        });
+
+        notifications.clear();
+        notifications.addAll(newNotifications);
+        diffResult.dispatchUpdatesTo(this);
+    }
+    
+    // 화면에 보이는 내용이 같은지 비교
+    static boolean isSameContent(NotificationItem oldItem, NotificationItem newItem) {
+        return oldItem.isRead() == newItem.isRead()
+                && oldItem.getTimestamp() == newItem.getTimestamp()
+                && Objects.equals(oldItem.getNotificationText(), newItem.getNotificationText())
+                && Objects.equals(oldItem.getUserProfilePic(), newItem.getUserProfilePic())
+                && Objects.equals(oldItem.getContentImageUrl(), newItem.getContentImageUrl());
+    }
+    
     @NonNull
     @Override
     public NotificationViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -45,7 +91,7 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
     @Override
     public void onBindViewHolder(@NonNull NotificationViewHolder holder, int position) {
         NotificationItem notification = notifications.get(position);
-        holder.bind(notification, position);
+        holder.bind(notification);
     }
     
     @Override
@@ -76,7 +122,7 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
             itemContainer = itemView.findViewById(R.id.notification_container);
         }
         
-        public void bind(NotificationItem notification, int position) {
+        public void bind(NotificationItem notification) {
             // 알림 텍스트 설정
             tvNotificationText.setText(notification.getNotificationText());
             
@@ -125,9 +171,10 @@ public class NotificationAdapter extends RecyclerView.Adapter<NotificationAdapte
                 tvNotificationText.setTextColor(ContextCompat.getColor(context, R.color.text_primary));
             }
             
-            // 클릭 리스너 설정
+            // 클릭 리스너 설정 (부분 갱신으로 위치가 바뀔 수 있으므로 클릭 시점의 위치 사용)
             itemView.setOnClickListener(v -> {
-                if (listener != null) {
+                int position = getAdapterPosition();
+                if (listener != null && position != RecyclerView.NO_POSITION) {
                     listener.onNotificationClick(position);
                 }
             });
@@ -14,6 +14,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.example.snapshot.R;
@@ -26,8 +27,11 @@ import com.example.snapshot.ui.post.PostDetailActivity;
 import com.example.snapshot.ui.profile.ProfileActivity;
 import com.example.snapshot.ui.tag.TagDetailActivity;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
 import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
@@ -42,6 +46,18 @@ public class NotificationsFragment extends Fragment {
     private NotificationAdapter notificationAdapter;
     private List<NotificationItem> notificationList = new ArrayList<>();
     
+    private static final int LIVE_WINDOW_SIZE = 30; // 실시간으로 구독하는 최신 알림 수
+    private static final int PAGE_SIZE = 30; // 이전 알림 페이지 크기
+    private static final int PREFETCH_DISTANCE = 5;
+    
+    private ListenerRegistration notificationsListener;
+    private int listenerGeneration = 0; // 새로고침 전 리스너의 이벤트를 무시하기 위한 세대 번호
+    private boolean windowLoaded = false;
+    private int liveCount = 0; // notificationList 앞쪽에서 실시간 구간에 속한 항목 수 (나머지는 이전 페이지)
+    private DocumentSnapshot oldestSnapshot; // 목록 마지막 알림 (다음 페이지 커서)
+    private boolean loadingOlder = false;
+    private boolean hasMoreOlder = false;
+    
     private String currentUserId;
     
     @Override
@@ -77,7 +93,10 @@ public class NotificationsFragment extends Fragment {
         setupRecyclerView();
         
         // 새로고침 설정
-        binding.swipeRefreshLayout.setOnRefreshListener(this::loadNotifications);
+        binding.swipeRefreshLayout.setOnRefreshListener(() -> {
+            windowLoaded = false;
+            loadNotifications();
+        });
         
         // 초기 데이터 로드
         loadNotifications();
@@ -110,9 +129,22 @@ public class NotificationsFragment extends Fragment {
     
     private void setupRecyclerView() {
         notificationAdapter = new NotificationAdapter(requireContext(), notificationList);
-        binding.recyclerNotifications.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        binding.recyclerNotifications.setLayoutManager(layoutManager);
         binding.recyclerNotifications.setAdapter(notificationAdapter);
         
+        // 끝에 가까워지면 이전 알림 페이지 로드
+        binding.recyclerNotifications.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (dy <= 0) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= notificationAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadOlderNotifications();
+                }
+            }
+        });
+        
         // 알림 클릭 리스너 설정
         notificationAdapter.setOnNotificationClickListener(position -> {
             if (position >= 0 && position < notificationList.size()) {
@@ -123,6 +155,10 @@ public class NotificationsFragment extends Fragment {
         });
     }
     
+    /**
+     * 최신 알림 구간에 실시간 리스너를 (다시) 연결
+     * 첫 스냅샷은 DiffUtil로 현재 목록과 비교해 교체하고, 이후에는 변경분만 반영
+     */
     private void loadNotifications() {
         if (currentUserId == null) {
             showEmptyView(true);
@@ -132,59 +168,218 @@ public class NotificationsFragment extends Fragment {
         
         showLoading(true);
         
-        // Firebase에서 알림 데이터 로드 - 실시간 리스너 사용
-        Query query = notificationRepository.getNotificationsForUser(currentUserId);
-        query.addSnapshotListener((queryDocumentSnapshots, firebaseFirestoreException) -> {
+        if (notificationsListener != null) {
+            notificationsListener.remove();
+        }
+        int generation = ++listenerGeneration;
+        
+        // 최신 LIVE_WINDOW_SIZE개만 실시간으로 구독 (이전 알림은 스크롤 시 커서로 로드)
+        // 한 개를 더 받아 구간 바로 뒤의 경계 문서로 사용: 새 알림에 밀려난 항목은 경계 문서가 될 뿐 REMOVED가 오지 않으므로
+        // 구간 안 항목의 REMOVED는 항상 삭제(또는 구간 밖으로의 이동)로 처리할 수 있음
+        Query query = notificationRepository.getNotificationsForUser(currentUserId).limit(LIVE_WINDOW_SIZE + 1);
+        notificationsListener = query.addSnapshotListener((queryDocumentSnapshots, firebaseFirestoreException) -> {
+            if (binding == null || generation != listenerGeneration) {
+                return;
+            }
+            
             if (firebaseFirestoreException != null) {
                 showLoading(false);
                 Toast.makeText(requireContext(), "알림 로드 실패: " + firebaseFirestoreException.getMessage(), Toast.LENGTH_SHORT).show();
-                showEmptyView(true);
+                showEmptyView(notificationList.isEmpty());
                 return;
             }
             
-            if (queryDocumentSnapshots == null || queryDocumentSnapshots.isEmpty()) {
-                notificationList.clear();
-                notificationAdapter.notifyDataSetChanged();
-                showEmptyView(true);
-                showLoading(false);
-                updateActionButtonsVisibility(false);
+            if (queryDocumentSnapshots == null) {
                 return;
             }
             
-            processNotifications(queryDocumentSnapshots);
+            if (!windowLoaded) {
+                windowLoaded = true;
+                replaceWithWindow(queryDocumentSnapshots);
+            } else {
+                applyWindowChanges(queryDocumentSnapshots);
+            }
+            
+            // 이전 페이지를 아직 불러오지 않았다면 커서는 최신 구간의 마지막 문서
+            if (notificationList.size() == liveCount) {
+                List<DocumentSnapshot> documents = queryDocumentSnapshots.getDocuments();
+                oldestSnapshot = liveCount == 0 ? null : documents.get(liveCount - 1);
+                hasMoreOlder = documents.size() > LIVE_WINDOW_SIZE;
+            }
+            
+            showEmptyView(notificationList.isEmpty());
+            showLoading(false);
+            
+            // 액션 버튼 가시성 설정
+            updateActionButtonsVisibility(!notificationList.isEmpty());
         });
     }
     
-    private void processNotifications(QuerySnapshot queryDocumentSnapshots) {
-        notificationList.clear();
-        
-        if (queryDocumentSnapshots.isEmpty()) {
-            showEmptyView(true);
-            showLoading(false);
-            return;
+    // 최신 구간 전체로 목록 교체 (첫 스냅샷, 경계 문서는 제외)
+    private void replaceWithWindow(QuerySnapshot queryDocumentSnapshots) {
+        List<NotificationItem> items = new ArrayList<>();
+        List<DocumentSnapshot> documents = queryDocumentSnapshots.getDocuments();
+        for (int i = 0; i < documents.size() && i < LIVE_WINDOW_SIZE; i++) {
+            DocumentSnapshot document = documents.get(i);
+            Notification notification = document.toObject(Notification.class);
+            items.add(convertToNotificationItem(notification, document.getId()));
+            
+            // 읽지 않은 알림이 있으면 표시
+            updateUnreadIndicator(notification.isRead());
         }
+        liveCount = items.size();
+        oldestSnapshot = null;
+        hasMoreOlder = false;
+        notificationAdapter.submitNotifications(items);
+    }
+    
+    /**
+     * 최신 구간의 변경분만 목록에 반영
+     * 변경 인덱스는 경계 문서를 포함한 스냅샷 기준이므로, 목록 앞쪽 liveCount개를 스냅샷 앞부분과 같게 유지하며 적용하고
+     * 그 뒤의 경계 문서 변경은 무시한 다음, 구간 크기(LIVE_WINDOW_SIZE)에 맞춰 넘치는 항목은 이전 페이지 구간으로 넘기고
+     * 모자라는 항목(구간 안 알림이 삭제되어 경계 문서가 올라온 경우)은 스냅샷에서 채움
+     */
+    private void applyWindowChanges(QuerySnapshot queryDocumentSnapshots) {
+        boolean olderLoaded = notificationList.size() > liveCount;
         
-        for (DocumentSnapshot document : queryDocumentSnapshots.getDocuments()) {
+        for (DocumentChange change : queryDocumentSnapshots.getDocumentChanges()) {
+            QueryDocumentSnapshot document = change.getDocument();
             Notification notification = document.toObject(Notification.class);
-            if (notification != null) {
-                // Notification 모델을 NotificationItem으로 변환
-                NotificationItem item = convertToNotificationItem(notification, document.getId());
-                notificationList.add(item);
-                
-                // 읽지 않은 알림이 있으면 표시
+            NotificationItem item = convertToNotificationItem(notification, document.getId());
+            int oldIndex = change.getOldIndex();
+            int newIndex = change.getNewIndex();
+            
+            switch (change.getType()) {
+                case ADDED:
+                    if (newIndex <= liveCount) {
+                        insertLiveItem(newIndex, item);
+                    }
+                    break;
+                case MODIFIED:
+                    boolean wasTracked = oldIndex < liveCount;
+                    if (wasTracked && oldIndex == newIndex) {
+                        notificationList.set(newIndex, item);
+                        notificationAdapter.notifyItemChanged(newIndex);
+                    } else if (wasTracked && newIndex < liveCount) {
+                        notificationList.remove(oldIndex);
+                        notificationList.add(newIndex, item);
+                        notificationAdapter.notifyItemMoved(oldIndex, newIndex);
+                        notificationAdapter.notifyItemChanged(newIndex);
+                    } else {
+                        if (wasTracked) {
+                            removeLiveItem(oldIndex);
+                        }
+                        if (newIndex <= liveCount) {
+                            insertLiveItem(newIndex, item);
+                        }
+                    }
+                    break;
+                case REMOVED:
+                    // 구간 안 항목이 빠지는 경우는 삭제뿐 (밀려난 항목은 경계 문서로 남음), 경계 문서 자체의 변경은 무시
+                    if (oldIndex < liveCount) {
+                        removeLiveItem(oldIndex);
+                    }
+                    break;
+            }
+            
+            if (change.getType() != DocumentChange.Type.REMOVED) {
                 updateUnreadIndicator(notification.isRead());
             }
         }
         
-        // 시간순으로 정렬 (최신순)
-        notificationList.sort((n1, n2) -> Long.compare(n2.getTimestamp(), n1.getTimestamp()));
-        
-        notificationAdapter.notifyDataSetChanged();
-        showEmptyView(notificationList.isEmpty());
-        showLoading(false);
+        List<DocumentSnapshot> documents = queryDocumentSnapshots.getDocuments();
+        int windowSize = Math.min(documents.size(), LIVE_WINDOW_SIZE);
+        if (liveCount > windowSize) {
+            // 새 알림에 밀려난 항목은 목록에 그대로 두고 이전 페이지 구간의 맨 앞으로 편입
+            liveCount = windowSize;
+            if (!olderLoaded) {
+                oldestSnapshot = documents.get(LIVE_WINDOW_SIZE); // 밀려난 항목 중 가장 최신 (경계 문서)
+                hasMoreOlder = true;
+            }
+        }
+        while (liveCount < windowSize) {
+            DocumentSnapshot document = documents.get(liveCount);
+            Notification notification = document.toObject(Notification.class);
+            insertLiveItem(liveCount, convertToNotificationItem(notification, document.getId()));
+        }
+    }
+    
+    // 최신 구간에 항목 추가 (이전 페이지에 있던 알림이 집계 갱신 등으로 다시 들어온 경우 중복 제거)
+    private void insertLiveItem(int index, NotificationItem item) {
+        removeOlderItem(item.getNotificationId());
+        notificationList.add(index, item);
+        liveCount++;
+        notificationAdapter.notifyItemInserted(index);
+    }
+    
+    private void removeLiveItem(int index) {
+        notificationList.remove(index);
+        liveCount--;
+        notificationAdapter.notifyItemRemoved(index);
+    }
+    
+    // 이전 페이지 구간에서 같은 알림 제거
+    private void removeOlderItem(String notificationId) {
+        for (int i = liveCount; i < notificationList.size(); i++) {
+            if (notificationId.equals(notificationList.get(i).getNotificationId())) {
+                notificationList.remove(i);
+                notificationAdapter.notifyItemRemoved(i);
+                return;
+            }
+        }
+    }
+    
+    // 이전 알림 페이지 로드 - 스크롤이 끝에 가까워졌을 때 호출
+    private void loadOlderNotifications() {
+        if (currentUserId == null || loadingOlder || !hasMoreOlder || oldestSnapshot == null) {
+            return;
+        }
         
-        // 액션 버튼 가시성 설정
-        updateActionButtonsVisibility(!notificationList.isEmpty());
+        loadingOlder = true;
+        DocumentSnapshot cursor = oldestSnapshot;
+        notificationRepository.getNotificationsForUser(currentUserId)
+                .startAfter(cursor)
+                .limit(PAGE_SIZE)
+                .get()
+                .addOnSuccessListener(queryDocumentSnapshots -> {
+                    loadingOlder = false;
+                    // 요청 후 새로고침 등으로 목록 끝이 바뀌었다면 결과를 버림 (스크롤 시 다시 요청)
+                    if (binding == null || oldestSnapshot == null
+                            || !cursor.getId().equals(oldestSnapshot.getId())) {
+                        return;
+                    }
+                    
+                    int start = notificationList.size();
+                    for (QueryDocumentSnapshot document : queryDocumentSnapshots) {
+                        if (indexOfNotification(document.getId()) >= 0) {
+                            continue; // 구간에서 밀려나 이미 목록에 있는 알림
+                        }
+                        Notification notification = document.toObject(Notification.class);
+                        notificationList.add(convertToNotificationItem(notification, document.getId()));
+                    }
+                    notificationAdapter.notifyItemRangeInserted(start, notificationList.size() - start);
+                    
+                    List<DocumentSnapshot> documents = queryDocumentSnapshots.getDocuments();
+                    if (!documents.isEmpty()) {
+                        oldestSnapshot = documents.get(documents.size() - 1);
+                    }
+                    hasMoreOlder = documents.size() >= PAGE_SIZE;
+                })
+                .addOnFailureListener(e -> {
+                    loadingOlder = false;
+                    if (binding != null) {
+                        Toast.makeText(requireContext(), "이전 알림 로드 실패: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
+    
+    private int indexOfNotification(String notificationId) {
+        for (int i = 0; i < notificationList.size(); i++) {
+            if (notificationId.equals(notificationList.get(i).getNotificationId())) {
+                return i;
+            }
+        }
+        return -1;
     }
     
     private NotificationItem convertToNotificationItem(Notification notification, String documentId) {
@@ -218,7 +413,7 @@ public class NotificationsFragment extends Fragment {
                 notification.getSenderId(),
                 notification.getSenderName(),
                 notification.getSenderProfilePic(),
-                notification.getContent(),
+                notification.getDisplayContent(),
                 timestamp,
                 type,
                 notification.getTargetId(),
@@ -243,23 +438,32 @@ public class NotificationsFragment extends Fragment {
             notificationRepository.markNotificationAsRead(item.getNotificationId())
                     .addOnSuccessListener(aVoid -> {
                         item.setRead(true);
-                        notificationAdapter.notifyDataSetChanged();
+                        int index = notificationList.indexOf(item);
+                        if (index >= 0) {
+                            notificationAdapter.notifyItemChanged(index);
+                        }
                     });
         }
     }
     
     private void markAllAsRead() {
         if (currentUserId != null) {
+            // 알림이 많으면 여러 배치로 나뉘어 시간이 걸리므로 로딩 표시
+            showLoading(true);
             notificationRepository.markAllNotificationsAsRead(currentUserId)
-                    .addOnSuccessListener(aVoid -> {
+                    .addOnSuccessListener(count -> {
+                        if (binding == null) return;
+                        showLoading(false);
                         // 모든 알림을 읽음으로 표시
                         for (NotificationItem item : notificationList) {
                             item.setRead(true);
                         }
-                        notificationAdapter.notifyDataSetChanged();
+                        notificationAdapter.notifyItemRangeChanged(0, notificationList.size());
                         Toast.makeText(requireContext(), "모든 알림을 읽음으로 표시했습니다", Toast.LENGTH_SHORT).show();
                     })
                     .addOnFailureListener(e -> {
+                        if (binding == null) return;
+                        showLoading(false);
                         Toast.makeText(requireContext(), "오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                     });
         }
@@ -267,15 +471,24 @@ public class NotificationsFragment extends Fragment {
     
     private void clearAllNotifications() {
         if (currentUserId != null) {
+            showLoading(true);
             notificationRepository.deleteAllNotificationsForUser(currentUserId)
-                    .addOnSuccessListener(aVoid -> {
+                    .addOnSuccessListener(count -> {
+                        if (binding == null) return;
+                        showLoading(false);
+                        int removedCount = notificationList.size();
                         notificationList.clear();
-                        notificationAdapter.notifyDataSetChanged();
+                        liveCount = 0;
+                        oldestSnapshot = null;
+                        hasMoreOlder = false;
+                        notificationAdapter.notifyItemRangeRemoved(0, removedCount);
                         showEmptyView(true);
                         updateActionButtonsVisibility(false);
                         Toast.makeText(requireContext(), "모든 알림을 삭제했습니다", Toast.LENGTH_SHORT).show();
                     })
                     .addOnFailureListener(e -> {
+                        if (binding == null) return;
+                        showLoading(false);
                         Toast.makeText(requireContext(), "오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                     });
         }
@@ -322,6 +535,11 @@ public class NotificationsFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (notificationsListener != null) {
+            notificationsListener.remove();
+            notificationsListener = null;
+        }
+        windowLoaded = false;
         binding = null;
     }
 } 
\ No newline at end of file
@@ -11,7 +11,6 @@ import android.location.Address;
 import android.location.Geocoder;
 import android.net.Uri;
 import android.os.Bundle;
-import android.provider.MediaStore;
 import android.text.TextUtils;
 import android.view.View;
 import android.view.ViewGroup;
@@ -36,9 +35,13 @@ import com.example.snapshot.model.Tag;
 import com.example.snapshot.repository.PostRepository;
 import com.example.snapshot.repository.UserRepository;
 import com.example.snapshot.repository.TagRepository;
+import com.example.snapshot.service.PostUploadWorker;
 import com.example.snapshot.service.TagSuggestionService;
 import com.example.snapshot.ui.home.TagAdapter;
+import com.example.snapshot.utils.ImagePreparer;
 import com.google.android.gms.location.FusedLocationProviderClient;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.material.chip.Chip;
 import com.google.android.material.chip.ChipGroup;
@@ -47,7 +50,6 @@ import com.google.firebase.firestore.GeoPoint;
 import com.google.firebase.Timestamp;
 import com.google.android.flexbox.FlexboxLayout;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -68,8 +70,10 @@ public class CreatePostActivity extends AppCompatActivity {
     private UserRepository userRepository;
     private TagRepository tagRepository;
     private TagSuggestionService tagSuggestionService;
+    private TagSuggestionService.SuggestionRequest tagSuggestionRequest; // 진행 중인 태그 추천 (화면 종료/이미지 변경 시 취소)
     
     private Uri selectedImageUri;
+    private Task<Bitmap> preparedImageTask; // 새로 선택한 이미지의 축소 비트맵 (업로드와 태그 추천이 공유)
     private List<Tag> addedTags = new ArrayList<>();
     private TagAdapter addedTagsAdapter;
     private TagAdapter suggestedTagsAdapter;
@@ -88,9 +92,12 @@ public class CreatePostActivity extends AppCompatActivity {
             uri -> {
                 if (uri != null) {
                     selectedImageUri = uri;
-                    binding.ivPostImage.setImageURI(uri);
+                    Glide.with(this).load(uri).into(binding.ivPostImage);
                     binding.btnAddImage.setVisibility(View.GONE);
                     
+                    // 백그라운드에서 축소 디코딩 (원본 전체를 UI 스레드에서 디코딩하지 않음)
+                    preparedImageTask = ImagePreparer.decode(this, uri, ImagePreparer.MAX_DIMENSION);
+                    
                     // 이미지에서 태그 추천
                     generateTagSuggestions();
                 }
@@ -104,8 +111,9 @@ public class CreatePostActivity extends AppCompatActivity {
                     binding.ivPostImage.setImageBitmap(bitmap);
                     binding.btnAddImage.setVisibility(View.GONE);
                     
-                    // 비트맵을 Uri로 변환 (임시 방법)
-                    selectedImageUri = getImageUri(bitmap);
+                    // 미리보기 비트맵은 이미 작으므로 그대로 사용
+                    selectedImageUri = null;
+                    preparedImageTask = Tasks.forResult(bitmap);
                     
                     // 이미지에서 태그 추천
                     suggestTagsFromBitmap(bitmap);
@@ -128,6 +136,7 @@ public class CreatePostActivity extends AppCompatActivity {
         userRepository = UserRepository.getInstance();
         tagRepository = TagRepository.getInstance();
         tagSuggestionService = TagSuggestionService.getInstance(this);
+        warmUpLocalTagSuggestions();
         
         // 툴바 설정
         setupToolbar();
@@ -154,6 +163,33 @@ public class CreatePostActivity extends AppCompatActivity {
         setupToolbarTitle();
     }
     
+    // Gemini 호출이 불가능할 때 바로 쓸 수 있도록 로컬 추천 인덱스를 미리 구성 (위치 권한이 있으면 주변 태그 포함)
+    private void warmUpLocalTagSuggestions() {
+        FirebaseUser firebaseUser = userRepository.getCurrentUser();
+        String userId = firebaseUser != null ? firebaseUser.getUid() : null;
+        if (ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION) != PackageManager.PERMISSION_GRANTED) {
+            tagSuggestionService.warmUpLocalSuggestions(userId, null);
+            return;
+        }
+        LocationServices.getFusedLocationProviderClient(this).getLastLocation()
+                .addOnCompleteListener(task -> {
+                    GeoPoint location = task.isSuccessful() && task.getResult() != null
+                            ? new GeoPoint(task.getResult().getLatitude(), task.getResult().getLongitude())
+                            : null;
+                    tagSuggestionService.warmUpLocalSuggestions(userId, location);
+                });
+    }
+    
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // 화면을 떠나면 태그 추천 결과가 필요 없으므로 대기/진행 중인 요청 취소
+        if (tagSuggestionRequest != null) {
+            tagSuggestionRequest.cancel();
+            tagSuggestionRequest = null;
+        }
+    }
+    
     private void setupToolbar() {
         setSupportActionBar(binding.toolbar);
         if (getSupportActionBar() != null) {
@@ -298,13 +334,6 @@ public class CreatePostActivity extends AppCompatActivity {
         takePicture.launch(null);
     }
     
-    private Uri getImageUri(Bitmap bitmap) {
-        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
-        bitmap.compress(Bitmap.CompressFormat.JPEG, 100, bytes);
-        String path = MediaStore.Images.Media.insertImage(getContentResolver(), bitmap, "Title", null);
-        return Uri.parse(path);
-    }
-    
     private void addTagTypeChips() {
         // 위치 태그
         Chip locationChip = new Chip(this);
@@ -887,27 +916,57 @@ public class CreatePostActivity extends AppCompatActivity {
     }
     
     private void generateTagSuggestions() {
-        // 선택된 이미지가 있을 때만 실행
-        if (selectedImageUri == null) return;
+        // 준비 중인 이미지가 있을 때만 실행
+        if (preparedImageTask == null) return;
         
-        try {
-            Bitmap bitmap = MediaStore.Images.Media.getBitmap(getContentResolver(), selectedImageUri);
-            suggestTagsFromBitmap(bitmap);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        Task<Bitmap> task = preparedImageTask;
+        task.addOnSuccessListener(this, bitmap -> {
+                    // 그 사이 다른 이미지를 선택했다면 무시
+                    if (task == preparedImageTask) {
+                        suggestTagsFromBitmap(bitmap);
+                    }
+                })
+                .addOnFailureListener(this, e ->
+                        Toast.makeText(this, "이미지 처리 중 오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show());
     }
     
     private void suggestTagsFromBitmap(Bitmap bitmap) {
         showLoading(true);
         
+        // 이전 이미지에 대한 추천은 더 이상 필요 없으므로 취소
+        if (tagSuggestionRequest != null) {
+            tagSuggestionRequest.cancel();
+        }
+        
         // Gemini API로 태그 추천
-        tagSuggestionService.suggestTags(bitmap, new TagSuggestionService.TagSuggestionCallback() {
+        suggestedTags.clear();
+        suggestedTagsAdapter.notifyDataSetChanged();
+        
+        tagSuggestionRequest = tagSuggestionService.suggestTags(bitmap, new TagSuggestionService.TagSuggestionCallback() {
+            @Override
+            public void onTagSuggested(Tag tag) {
+                // 스트리밍으로 태그가 완성될 때마다 바로 칩 추가
+                runOnUiThread(() -> {
+                    if (addedTags.contains(tag) || suggestedTags.contains(tag)) {
+                        return;
+                    }
+                    suggestedTags.add(tag);
+                    suggestedTagsAdapter.notifyItemInserted(suggestedTags.size() - 1);
+                    binding.tvAiSuggestedTags.setVisibility(View.VISIBLE);
+                    binding.recyclerSuggestedTags.setVisibility(View.VISIBLE);
+                });
+            }
+            
             @Override
             public void onTagsGenerated(List<Tag> tags) {
                 runOnUiThread(() -> {
+                    // 스트리밍 중 이미 추가한 태그는 제외하고 최종 목록으로 교체
                     suggestedTags.clear();
-                    suggestedTags.addAll(tags);
+                    for (Tag tag : tags) {
+                        if (!addedTags.contains(tag)) {
+                            suggestedTags.add(tag);
+                        }
+                    }
                     suggestedTagsAdapter.notifyDataSetChanged();
                     
                     // 추천 태그가 있으면 표시
@@ -957,7 +1016,7 @@ public class CreatePostActivity extends AppCompatActivity {
             return;
         }
 
-        if (selectedImageUri == null && editingPostId == null) { // 새 게시물 작성 시 이미지는 필수
+        if (preparedImageTask == null && editingPostId == null) { // 새 게시물 작성 시 이미지는 필수
             Toast.makeText(this, "이미지를 선택해주세요.", Toast.LENGTH_SHORT).show();
             return;
         }
@@ -969,67 +1028,65 @@ public class CreatePostActivity extends AppCompatActivity {
 
         showLoading(true);
 
-        // 이미지 데이터 준비 (Bitmap에서 byte[]로 변환)
-        byte[] imageData = null;
-        boolean imageChanged = false; // 수정 모드에서 이미지가 변경되었는지 여부
-
-        if (selectedImageUri != null) {
-            // 새 이미지가 선택되었거나, 기존 이미지 URI와 다른 경우 (문자열 비교로 단순화)
-            if (currentEditingPost == null || !selectedImageUri.toString().equals(currentEditingPost.getImageUrl())) {
-                imageChanged = true;
-                try {
-                    Bitmap bitmap = MediaStore.Images.Media.getBitmap(this.getContentResolver(), selectedImageUri);
-                    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                    bitmap.compress(Bitmap.CompressFormat.JPEG, 80, baos); // 품질 80으로 압축
-                    imageData = baos.toByteArray();
-                } catch (IOException e) {
-                    showLoading(false);
-                    Toast.makeText(this, "이미지 처리 중 오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    return;
-                }
-            }
+        if (preparedImageTask != null) {
+            // 새 이미지가 선택된 경우: 준비된 축소 비트맵으로 해상도별 JPEG를 백그라운드에서 만든 후 업로드
+            preparedImageTask
+                    .onSuccessTask(ImagePreparer::compressRenditions)
+                    .addOnSuccessListener(this, renditions -> {
+                        if (editingPostId != null) {
+                            uploadImageAndUpdatePost(firebaseUser, caption, renditions);
+                        } else {
+                            enqueuePostUpload(firebaseUser, caption, renditions);
+                        }
+                    })
+                    .addOnFailureListener(this, e -> {
+                        showLoading(false);
+                        Toast.makeText(this, "이미지 처리 중 오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                    });
         } else if (editingPostId != null && currentEditingPost != null && currentEditingPost.getImageUrl() == null) {
             // 수정 모드인데 기존 이미지가 없고 새 이미지도 선택 안 한 경우 (이론상 발생 안해야 함, 방어 코드)
              Toast.makeText(this, "이미지가 없습니다.", Toast.LENGTH_SHORT).show();
              showLoading(false);
-             return;
-        }
-
-        if (imageChanged && imageData != null) {
-            // 이미지가 변경되었으면 업로드 후 URL 받아오기
-            String imageFileName = UUID.randomUUID().toString() + ".jpg";
-            postRepository.uploadPostImage(imageFileName, imageData)
-                    .addOnSuccessListener(taskSnapshot -> taskSnapshot.getStorage().getDownloadUrl()
-                            .addOnSuccessListener(uri -> {
-                                String imageUrl = uri.toString();
-                                if (editingPostId != null) {
-                                    updatePostInFirestore(firebaseUser, caption, imageUrl, addedTags);
-                                } else {
-                                    savePostToFirestore(firebaseUser, caption, imageUrl, addedTags);
-                                }
-                            })
-                            .addOnFailureListener(e -> {
-                                showLoading(false);
-                                Toast.makeText(CreatePostActivity.this, "이미지 URL 가져오기 실패: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                            }))
-                    .addOnFailureListener(e -> {
-                        showLoading(false);
-                        Toast.makeText(CreatePostActivity.this, "이미지 업로드 실패: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-                    });
         } else {
             // 이미지 변경 없으면 기존 URL 사용 (수정 모드) 또는 이미지 없이 진행 (새 게시물 - 현재는 막혀있음)
-            String imageUrl = (editingPostId != null && currentEditingPost != null) ? currentEditingPost.getImageUrl() : null;
             if (editingPostId != null) {
-                updatePostInFirestore(firebaseUser, caption, imageUrl, addedTags);
+                updatePostInFirestore(firebaseUser, caption, null, addedTags);
             } else {
-                // 이 경우는 selectedImageUri가 null이고 새 게시물일 때인데, 위에서 이미 필터링됨.
+                // 이 경우는 새 이미지가 없고 새 게시물일 때인데, 위에서 이미 필터링됨.
                 // 만약 이미지 없이 새 게시물 작성을 허용한다면 이 부분 로직 필요.
-                savePostToFirestore(firebaseUser, caption, imageUrl, addedTags); 
+                savePostToFirestore(firebaseUser, caption, new HashMap<>(), addedTags); 
             }
         }
     }
 
-    private void savePostToFirestore(FirebaseUser firebaseUser, String caption, String imageUrl, List<Tag> tags) {
+    // 새 게시물: 업로드 큐에 등록하고 바로 화면을 닫음 (게시물은 업로드 완료 후 백그라운드에서 생성)
+    private void enqueuePostUpload(FirebaseUser firebaseUser, String caption, ImagePreparer.Renditions renditions) {
+        Post draft = new Post(null, firebaseUser.getUid(), null, null, null, caption, null, addedTags);
+        PostUploadWorker.enqueue(this, draft, renditions)
+                .addOnSuccessListener(this, unused -> {
+                    showLoading(false);
+                    Toast.makeText(this, "게시물을 업로드하는 중입니다.", Toast.LENGTH_SHORT).show();
+                    setResult(Activity.RESULT_OK);
+                    finish();
+                })
+                .addOnFailureListener(this, e -> {
+                    showLoading(false);
+                    Toast.makeText(this, "게시물 업로드 준비 실패: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    // 수정 모드: 해상도별 이미지 업로드 후 URL로 게시물 업데이트
+    private void uploadImageAndUpdatePost(FirebaseUser firebaseUser, String caption, ImagePreparer.Renditions renditions) {
+        String imageFileName = UUID.randomUUID().toString() + ".jpg";
+        postRepository.uploadPostImageRenditions(imageFileName, renditions)
+                .addOnSuccessListener(imageUrls -> updatePostInFirestore(firebaseUser, caption, imageUrls, addedTags))
+                .addOnFailureListener(e -> {
+                    showLoading(false);
+                    Toast.makeText(CreatePostActivity.this, "이미지 업로드 실패: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                });
+    }
+
+    private void savePostToFirestore(FirebaseUser firebaseUser, String caption, Map<String, String> imageUrls, List<Tag> tags) {
         String userId = firebaseUser.getUid();
 
         // UserRepository를 통해 현재 사용자 정보 가져오기
@@ -1045,13 +1102,15 @@ public class CreatePostActivity extends AppCompatActivity {
                             userId,
                             userName, // Firestore User 객체의 username 사용
                             userProfilePic, // Firestore User 객체의 profilePicUrl 사용
-                            imageUrl,
+                            imageUrls.get("imageUrl"),
                             caption,
                             null, // creationDate는 Post 모델 내부에서 Timestamp.now()로 처리 (또는 Repository에서 설정)
                             tags
                     );
+                    newPost.setFeedImageUrl(imageUrls.get("feedImageUrl"));
+                    newPost.setThumbnailUrl(imageUrls.get("thumbnailUrl"));
 
-                    postRepository.createPost(newPost)
+                    postRepository.createPost(newPost, currentUser)
                             .addOnSuccessListener(aVoid -> {
                                 showLoading(false);
                                 Toast.makeText(this, "게시물이 성공적으로 작성되었습니다.", Toast.LENGTH_SHORT).show();
@@ -1076,7 +1135,7 @@ public class CreatePostActivity extends AppCompatActivity {
         });
     }
 
-    private void updatePostInFirestore(FirebaseUser firebaseUser, String caption, String imageUrl, List<Tag> tags) {
+    private void updatePostInFirestore(FirebaseUser firebaseUser, String caption, Map<String, String> imageUrls, List<Tag> tags) {
         if (editingPostId == null || currentEditingPost == null) {
             showLoading(false);
             Toast.makeText(this, "게시물 업데이트 중 오류가 발생했습니다.", Toast.LENGTH_SHORT).show();
@@ -1090,8 +1149,8 @@ public class CreatePostActivity extends AppCompatActivity {
         updates.put("tags", tags.stream().map(Tag::toMap).collect(Collectors.toList()));
         updates.put("tagNames", tagNamesList); // tagNames 필드 추가
         updates.put("lastModifiedDate", Timestamp.now());
-        if (imageUrl != null) {
-            updates.put("imageUrl", imageUrl);
+        if (imageUrls != null) {
+            updates.putAll(imageUrls); // imageUrl, feedImageUrl, thumbnailUrl
         }
 
         postRepository.updatePost(editingPostId, updates)
@@ -172,9 +172,16 @@ public class PostDetailActivity extends AppCompatActivity {
         binding.tvLikesCount.setText(String.valueOf(post.getLikeCount()));
         binding.tvCommentsCount.setText(String.valueOf(post.getCommentCount()));
         
-        // 좋아요 상태 UI 업데이트
+        // 좋아요 상태 UI 업데이트 (likes 하위 컬렉션에서 현재 사용자 문서 조회)
+        updateLikeButtonUI(false);
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        updateLikeButtonUI(currentUser != null && post.getUserLikes().contains(currentUser.getUid()));
+        if (currentUser != null) {
+            postRepository.isPostLikedByUser(post.getPostId(), currentUser.getUid())
+                    .addOnSuccessListener(isLiked -> {
+                        post.setLikedByCurrentUser(isLiked);
+                        updateLikeButtonUI(isLiked);
+                    });
+        }
     }
     
     // 좋아요 버튼 UI 업데이트 메소드 추가
@@ -226,19 +233,14 @@ public class PostDetailActivity extends AppCompatActivity {
         if (currentPost == null) return;
         
         String userId = currentUser.getUid();
-        boolean isCurrentlyLiked = currentPost.getUserLikes().contains(userId);
+        boolean isCurrentlyLiked = currentPost.isLikedByCurrentUser();
         
         // Firestore 업데이트 요청
         postRepository.toggleLike(postId, userId)
             .addOnSuccessListener(aVoid -> {
                 // 로컬 Post 객체 업데이트 및 UI 갱신
-                if (isCurrentlyLiked) {
-                    currentPost.getUserLikes().remove(userId);
-                    currentPost.setLikeCount(currentPost.getLikeCount() - 1);
-                } else {
-                    currentPost.getUserLikes().add(userId);
-                    currentPost.setLikeCount(currentPost.getLikeCount() + 1);
-                }
+                currentPost.setLikedByCurrentUser(!isCurrentlyLiked);
+                currentPost.setLikeCount(currentPost.getLikeCount() + (isCurrentlyLiked ? -1 : 1));
                 updateLikeButtonUI(!isCurrentlyLiked);
             })
             .addOnFailureListener(e -> {
@@ -40,9 +40,10 @@ public class ProfilePostAdapter extends RecyclerView.Adapter<ProfilePostAdapter.
         
         // 게시물 썸네일 로드 - null 체크 추가
         if (post != null && holder.postImage != null) {
-            // 기본 이미지 로드 구성
+            // 그리드 칸 크기에 맞는 썸네일 로드 (3열 그리드)
+            String imageUrl = post.getImageUrlForSize(context.getResources().getDisplayMetrics().widthPixels / 3);
             Glide.with(context)
-                    .load(post.getImageUrl() != null ? post.getImageUrl() : R.drawable.placeholder_image)
+                    .load(imageUrl != null ? imageUrl : R.drawable.placeholder_image)
                     .placeholder(R.drawable.placeholder_image)
                     .centerCrop()
                     .into(holder.postImage);
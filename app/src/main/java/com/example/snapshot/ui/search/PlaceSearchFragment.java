@@ -15,6 +15,8 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 import android.util.Log;
+import android.util.LruCache;
+import android.util.SparseArray;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -31,24 +33,23 @@ import com.example.snapshot.model.Tag;
 import com.example.snapshot.repository.PostRepository;
 import com.example.snapshot.ui.home.PostAdapter;
 import com.example.snapshot.ui.post.PostDetailActivity;
+import com.example.snapshot.utils.GeoHashUtils;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationServices;
 import com.google.android.gms.maps.CameraUpdateFactory;
 import com.google.android.gms.maps.GoogleMap;
 import com.google.android.gms.maps.MapView;
 import com.google.android.gms.maps.OnMapReadyCallback;
+import com.google.android.gms.maps.model.BitmapDescriptor;
 import com.google.android.gms.maps.model.BitmapDescriptorFactory;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.Marker;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.android.gms.maps.model.LatLngBounds;
-import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.GeoPoint;
 import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QuerySnapshot;
 import com.google.maps.android.clustering.ClusterManager;
 import com.google.maps.android.clustering.ClusterItem;
 import com.google.maps.android.clustering.Cluster;
@@ -69,14 +70,24 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback {
     
     private static final String TAG_LOG = "PlaceSearchFragment";
+    private static final String SEARCH_SCOPE = "place";
+    private static final double NEARBY_RADIUS_KM = 5.0; // 목록 보기 주변 게시물 반경
+    private static final int MIN_TILE_PRECISION = 3;   // 가장 큰 지도 타일 (geohash 길이)
+    private static final int MAX_TILES_PER_VIEW = 24;  // 한 화면에서 조회할 최대 타일 수
+    private static final int MAX_CACHED_TILES = 64;    // 마커를 유지할 최대 타일 수
+    private static final int MAX_POSTS_PER_TILE = 200; // 타일당 최대 포스트 수
+    private static final int THUMBNAIL_CACHE_SIZE = 100; // 마커 썸네일 아이콘 캐시 크기
     private static final int LOCATION_PERMISSION_REQUEST_CODE = 100;
     private static final float DEFAULT_ZOOM = 14f;
     
@@ -88,7 +99,23 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
     private TouchableMapView mapView;
     private GoogleMap googleMap;
     private PostAdapter listAdapter;
-    private List<Post> postListForMap = new ArrayList<>();
+    // 지도 타일 캐시: geohash 타일 -> 타일의 포스트 ID (접근 순서, 한도를 넘으면 가장 오래된 타일의 마커 제거)
+    private final LinkedHashMap<String, List<String>> tileCache = new LinkedHashMap<String, List<String>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+            if (size() > MAX_CACHED_TILES) {
+                removeTileMarkers(eldest.getValue());
+                truncatedTiles.remove(eldest.getKey());
+                return true;
+            }
+            return false;
+        }
+    };
+    private final Set<String> loadingTiles = new HashSet<>();
+    private final Set<String> truncatedTiles = new HashSet<>(); // 포스트 수 한도에 걸려 일부만 로드된 캐시 타일
+    private boolean zoomInHintShown = false; // 너무 넓은 영역이라 타일을 로드하지 않았다는 안내를 표시했는지
+    private final Map<String, PostClusterItem> mapItems = new HashMap<>(); // postId -> 지도에 추가된 아이템
+    private final Map<String, Integer> mapItemRefCounts = new HashMap<>(); // postId -> 해당 포스트를 포함한 캐시 타일 수
     private List<Post> sortedPostListForList = new ArrayList<>();
     private PostRepository postRepository;
     private FusedLocationProviderClient fusedLocationClient;
@@ -158,6 +185,12 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
         private final int borderColor = Color.WHITE; // 테두리 색상
         private final int clusterIconSize = 120; // 클러스터 아이콘 크기 (px)
         private final Paint textPaint;
+        private final Paint clusterBackgroundPaint;
+        private final BitmapDescriptor placeholderDescriptor;
+        // 클러스터 아이콘 캐시: 크기 구간(getBucket: 2~9, 10+, 20+, 50+, 100+ ...) -> 아이콘
+        private final SparseArray<BitmapDescriptor> clusterIconCache = new SparseArray<>();
+        // 개별 마커 썸네일 캐시: 이미지 URL -> 원형+테두리 처리된 아이콘 (최근 사용 순)
+        private final LruCache<String, BitmapDescriptor> thumbnailCache = new LruCache<>(THUMBNAIL_CACHE_SIZE);
 
         public PostMarkerRenderer(android.content.Context context, GoogleMap map, ClusterManager<PostClusterItem> clusterManager) {
             super(context, map, clusterManager);
@@ -165,6 +198,7 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
             // 원형 + 테두리 플레이스홀더 생성
             Bitmap tempPlaceholder = createPlaceholderBitmap(markerSize);
             this.placeholderBitmap = addBorderToCircularBitmap(tempPlaceholder, borderSize, borderColor);
+            this.placeholderDescriptor = BitmapDescriptorFactory.fromBitmap(placeholderBitmap);
 
             // 클러스터 텍스트용 Paint 초기화
             textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
@@ -172,19 +206,26 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
             textPaint.setTextSize(40f); // 텍스트 크기
             textPaint.setTextAlign(Paint.Align.CENTER);
             textPaint.setFakeBoldText(true);
+
+            clusterBackgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            clusterBackgroundPaint.setColor(ContextCompat.getColor(this.context, R.color.blue)); // 파란색 배경
+            clusterBackgroundPaint.setStyle(Paint.Style.FILL);
         }
 
         // 개별 마커 아이콘 설정 (원형 + 테두리)
         @Override
         protected void onBeforeClusterItemRendered(@NonNull PostClusterItem item, @NonNull MarkerOptions markerOptions) {
-            markerOptions.icon(BitmapDescriptorFactory.fromBitmap(placeholderBitmap))
+            String imageUrl = item.getPost() != null ? item.getPost().getImageUrlForSize(markerSize) : null;
+            BitmapDescriptor cachedThumbnail = imageUrl != null ? thumbnailCache.get(imageUrl) : null;
+            markerOptions.icon(cachedThumbnail != null ? cachedThumbnail : placeholderDescriptor)
                          .title(item.getTitle())
                          .snippet(item.getSnippet());
 
-            if (item.getPost() != null && item.getPost().getImageUrl() != null && !item.getPost().getImageUrl().isEmpty()) {
+            // 이미 만든 썸네일 아이콘이 있으면 다시 로드/가공하지 않음
+            if (cachedThumbnail == null && imageUrl != null && !imageUrl.isEmpty()) {
                 Glide.with(context)
                     .asBitmap()
-                    .load(item.getPost().getImageUrl())
+                    .load(imageUrl)
                     .apply(RequestOptions.bitmapTransform(new CircleCrop())) // 원형으로 만들기
                     .override(markerSize - (borderSize * 2)) // 테두리 두께만큼 작게 로드
                     .error(placeholderBitmap) // 에러 시에도 원형+테두리 플레이스홀더 사용
@@ -194,8 +235,10 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
                             Marker marker = getMarker(item);
                             if (marker != null) {
                                 try {
-                                    Bitmap borderedBitmap = addBorderToCircularBitmap(resource, borderSize, borderColor);
-                                    marker.setIcon(BitmapDescriptorFactory.fromBitmap(borderedBitmap));
+                                    BitmapDescriptor thumbnail = BitmapDescriptorFactory.fromBitmap(
+                                            addBorderToCircularBitmap(resource, borderSize, borderColor));
+                                    thumbnailCache.put(imageUrl, thumbnail);
+                                    marker.setIcon(thumbnail);
                                 } catch (IllegalArgumentException e) {
                                     Log.e(TAG_LOG, "Error setting loaded marker icon: " + e.getMessage());
                                 }
@@ -209,7 +252,7 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
                             // 필요시 플레이스홀더 다시 설정 (이미 설정됨)
                             Marker marker = getMarker(item);
                             if (marker != null) {
-                                marker.setIcon(BitmapDescriptorFactory.fromBitmap(placeholderBitmap));
+                                marker.setIcon(placeholderDescriptor);
                             }
                         }
 
@@ -218,7 +261,7 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
                             // 로드 실패 시 플레이스홀더 사용 (이미 설정됨)
                             Marker marker = getMarker(item);
                              if (marker != null) {
-                                 marker.setIcon(BitmapDescriptorFactory.fromBitmap(placeholderBitmap));
+                                 marker.setIcon(placeholderDescriptor);
                             }
                             Log.e(TAG_LOG, "Failed to load marker image: " + item.getTitle());
                         }
@@ -229,16 +272,25 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
         // 클러스터 아이콘 설정 (파란 원 + 개수 텍스트)
         @Override
         protected void onBeforeClusterRendered(@NonNull Cluster<PostClusterItem> cluster, @NonNull MarkerOptions markerOptions) {
-            Bitmap clusterIcon = createClusterIconBitmap(cluster.getSize(), clusterIconSize);
-            markerOptions.icon(BitmapDescriptorFactory.fromBitmap(clusterIcon))
+            markerOptions.icon(getClusterIcon(cluster))
                          .anchor(0.5f, 0.5f); // 아이콘 중심을 기준으로 위치 설정
         }
 
         // 클러스터 개수가 갱신될 때 아이콘 업데이트 (예: 지도 축소/확대 시)
         @Override
         protected void onClusterUpdated(@NonNull Cluster<PostClusterItem> cluster, @NonNull Marker marker) {
-             Bitmap clusterIcon = createClusterIconBitmap(cluster.getSize(), clusterIconSize);
-             marker.setIcon(BitmapDescriptorFactory.fromBitmap(clusterIcon));
+             marker.setIcon(getClusterIcon(cluster));
+        }
+
+        // 같은 크기 구간의 클러스터는 한 번 만든 아이콘을 재사용
+        private BitmapDescriptor getClusterIcon(Cluster<PostClusterItem> cluster) {
+            int bucket = getBucket(cluster);
+            BitmapDescriptor icon = clusterIconCache.get(bucket);
+            if (icon == null) {
+                icon = BitmapDescriptorFactory.fromBitmap(createClusterIconBitmap(getClusterText(bucket), clusterIconSize));
+                clusterIconCache.put(bucket, icon);
+            }
+            return icon;
         }
 
         // 원형 비트맵에 테두리 추가 헬퍼
@@ -264,19 +316,14 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
         }
 
         // 클러스터 아이콘 생성 헬퍼 (파란 원 + 흰색 텍스트)
-        private Bitmap createClusterIconBitmap(int clusterSize, int iconSize) {
+        private Bitmap createClusterIconBitmap(String text, int iconSize) {
             Bitmap bitmap = Bitmap.createBitmap(iconSize, iconSize, Bitmap.Config.ARGB_8888);
             Canvas canvas = new Canvas(bitmap);
 
-            Paint backgroundPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-            backgroundPaint.setColor(ContextCompat.getColor(context, R.color.blue)); // 파란색 배경
-            backgroundPaint.setStyle(Paint.Style.FILL);
-
             // Draw background circle
-            canvas.drawCircle(iconSize / 2f, iconSize / 2f, iconSize / 2f, backgroundPaint);
+            canvas.drawCircle(iconSize / 2f, iconSize / 2f, iconSize / 2f, clusterBackgroundPaint);
 
             // Draw cluster size text
-            String text = String.valueOf(clusterSize);
             float textHeight = textPaint.descent() - textPaint.ascent();
             float textOffset = (textHeight / 2) - textPaint.descent();
             canvas.drawText(text, iconSize / 2f, iconSize / 2f + textOffset, textPaint);
@@ -349,7 +396,11 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
         
         clusterManager.setRenderer(new PostMarkerRenderer(requireContext(), googleMap, clusterManager));
         
-        googleMap.setOnCameraIdleListener(clusterManager);
+        // 카메라가 멈추면 클러스터 갱신 후 화면에 보이는 타일 중 아직 받지 않은 타일만 로드
+        googleMap.setOnCameraIdleListener(() -> {
+            clusterManager.onCameraIdle();
+            loadVisibleTiles();
+        });
         googleMap.setOnMarkerClickListener(clusterManager);
         
         clusterManager.setOnClusterItemClickListener(item -> {
@@ -433,12 +484,12 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
                             Log.w(TAG_LOG, "getDeviceLocationAndLoadMapMarkers: Location is null. Using default.");
                             googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(new LatLng(37.5665, 126.9780), DEFAULT_ZOOM));
                         }
-                        loadPostsForMap();
+                        loadVisibleTiles();
                                 })
                     .addOnFailureListener(requireActivity(), e -> {
                         Log.e(TAG_LOG, "getDeviceLocationAndLoadMapMarkers: Location failure.", e);
                         googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(new LatLng(37.5665, 126.9780), DEFAULT_ZOOM));
-                        loadPostsForMap();
+                        loadVisibleTiles();
                                 });
                     } else {
                 Log.d(TAG_LOG, "getDeviceLocationAndLoadMapMarkers: Permission not granted. Requesting.");
@@ -447,7 +498,7 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
         } catch (SecurityException e) {
             Log.e(TAG_LOG, "getDeviceLocationAndLoadMapMarkers: SecurityException.", e);
             googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(new LatLng(37.5665, 126.9780), DEFAULT_ZOOM));
-            loadPostsForMap();
+            loadVisibleTiles();
         }
     }
     
@@ -484,29 +535,130 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
         }
     }
     
-    private void loadPostsForMap() {
-        Log.d(TAG_LOG, "loadPostsForMap: Loading posts for map markers...");
+    private void loadVisibleTiles() {
+        if (googleMap == null || clusterManager == null) return;
+        LatLngBounds visibleBounds = googleMap.getProjection().getVisibleRegion().latLngBounds;
+        
+        // 확대 수준에 맞는 타일 크기 선택, 화면을 덮는 타일이 너무 많으면 한 단계 큰 타일 사용
+        int precision = tilePrecisionForZoom(googleMap.getCameraPosition().zoom);
+        Set<String> tiles = GeoHashUtils.coveringTiles(visibleBounds.southwest.latitude, visibleBounds.southwest.longitude,
+                visibleBounds.northeast.latitude, visibleBounds.northeast.longitude, precision);
+        while (tiles.size() > MAX_TILES_PER_VIEW && precision > MIN_TILE_PRECISION) {
+            precision--;
+            tiles = GeoHashUtils.coveringTiles(visibleBounds.southwest.latitude, visibleBounds.southwest.longitude,
+                    visibleBounds.northeast.latitude, visibleBounds.northeast.longitude, precision);
+        }
+        
+        // 가장 큰 타일로도 너무 많으면 (국가/대륙 단위 확대 수준) 로드하지 않고 확대 안내만 표시
+        if (tiles.size() > MAX_TILES_PER_VIEW) {
+            if (!zoomInHintShown) {
+                zoomInHintShown = true;
+                Toast.makeText(getContext(), "지도를 확대하면 게시물이 표시됩니다.", Toast.LENGTH_SHORT).show();
+            }
+            return;
+        }
+        zoomInHintShown = false;
+        
+        for (String tile : tiles) {
+            if (isTileCached(tile) || loadingTiles.contains(tile)) {
+                continue;
+            }
+            loadTile(tile);
+        }
+    }
+    
+    /**
+     * 타일 자체 또는 그 타일을 포함하는 더 큰 타일이 이미 캐시되어 있으면 true (캐시 접근 순서도 갱신)
+     * 포스트 수 한도에 걸려 일부만 로드된 큰 타일은 하위 타일을 대신할 수 없으므로 제외
+     */
+    private boolean isTileCached(String tile) {
+        if (tileCache.get(tile) != null) {
+            return true;
+        }
+        for (int length = tile.length() - 1; length >= MIN_TILE_PRECISION; length--) {
+            String parent = tile.substring(0, length);
+            if (!truncatedTiles.contains(parent) && tileCache.get(parent) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void loadTile(String tile) {
+        loadingTiles.add(tile);
         showLoading(true);
-        postRepository.getRecentPosts(50)
-                    .get()
-                    .addOnSuccessListener(queryDocumentSnapshots -> {
-                Log.d(TAG_LOG, "loadPostsForMap: Firestore success. Found " + queryDocumentSnapshots.size() + " documents.");
-                postListForMap.clear();
-                        for (DocumentSnapshot document : queryDocumentSnapshots) {
-                    Post post = document.toObject(Post.class);
-                    if (post != null) {
-                        postListForMap.add(post);
-                            }
-                        }
-                Log.d(TAG_LOG, "loadPostsForMap: Parsed " + postListForMap.size() + " posts. Adding markers.");
-                            addMarkersToMap();
-                        showLoading(false);
-                    })
-                    .addOnFailureListener(e -> {
-                Log.e(TAG_LOG, "loadPostsForMap: Error loading posts for map", e);
-                        showLoading(false);
-                mainThreadHandler.post(() -> Toast.makeText(requireContext(), "지도 데이터 로드 오류", Toast.LENGTH_SHORT).show());
-                    });
+        postRepository.getPostsInGeohashTile(tile, MAX_POSTS_PER_TILE)
+                .addOnCompleteListener(task -> {
+                    loadingTiles.remove(tile);
+                    showLoading(!loadingTiles.isEmpty());
+                    if (clusterManager == null) return;
+                    if (!task.isSuccessful()) {
+                        Log.e(TAG_LOG, "loadTile: Error loading posts for tile " + tile, task.getException());
+                        return; // 캐시하지 않으므로 다음 카메라 정지 시 다시 시도
+                    }
+                    PostRepository.TilePosts result = task.getResult();
+                    Log.d(TAG_LOG, "loadTile: Tile " + tile + " has " + result.posts.size() + " posts"
+                            + (result.truncated ? " (truncated)." : "."));
+                    if (result.truncated) {
+                        truncatedTiles.add(tile);
+                    }
+                    addTileMarkers(tile, result.posts);
+                });
+    }
+    
+    // 새 타일의 포스트 중 지도에 없는 것만 마커로 추가
+    private void addTileMarkers(String tile, List<Post> posts) {
+        List<String> postIds = new ArrayList<>();
+        boolean changed = false;
+        for (Post post : posts) {
+            LatLng position = getLatLngFromPost(post);
+            if (position == null || post.getPostId() == null) {
+                continue;
+            }
+            String postId = post.getPostId();
+            postIds.add(postId);
+            Integer refCount = mapItemRefCounts.get(postId);
+            mapItemRefCounts.put(postId, refCount == null ? 1 : refCount + 1);
+            if (refCount == null) {
+                PostClusterItem item = new PostClusterItem(position.latitude, position.longitude, post.getUserName(), post.getCaption(), post);
+                mapItems.put(postId, item);
+                clusterManager.addItem(item);
+                changed = true;
+            }
+        }
+        tileCache.put(tile, postIds);
+        if (changed) {
+            clusterManager.cluster();
+        }
+    }
+    
+    // 캐시에서 밀려난 타일의 마커 제거 (다른 캐시 타일에도 포함된 포스트는 유지)
+    private void removeTileMarkers(List<String> postIds) {
+        boolean changed = false;
+        for (String postId : postIds) {
+            Integer refCount = mapItemRefCounts.get(postId);
+            if (refCount == null) continue;
+            if (refCount > 1) {
+                mapItemRefCounts.put(postId, refCount - 1);
+                continue;
+            }
+            mapItemRefCounts.remove(postId);
+            PostClusterItem item = mapItems.remove(postId);
+            if (item != null && clusterManager != null) {
+                clusterManager.removeItem(item);
+                changed = true;
+            }
+        }
+        if (changed) {
+            clusterManager.cluster();
+        }
+    }
+    
+    private int tilePrecisionForZoom(float zoom) {
+        if (zoom >= 15) return 6; // 약 1.2km x 0.6km
+        if (zoom >= 12) return 5; // 약 4.9km x 4.9km
+        if (zoom >= 9) return 4;  // 약 39km x 20km
+        return MIN_TILE_PRECISION;
     }
     
     private void loadNearbyPostsForList() {
@@ -517,71 +669,51 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
             showLoading(false);
             return;
         }
-        Log.d(TAG_LOG, "loadNearbyPostsForList: Starting background task to load and sort nearby posts near (" + lastKnownLocation.getLatitude() + "," + lastKnownLocation.getLongitude() + ").");
+        double latitude = lastKnownLocation.getLatitude();
+        double longitude = lastKnownLocation.getLongitude();
+        Log.d(TAG_LOG, "loadNearbyPostsForList: Loading posts within " + NEARBY_RADIUS_KM + "km of (" + latitude + "," + longitude + ").");
         showLoading(true);
         
-        executorService.submit(() -> {
-            Log.d(TAG_LOG, "[BG] loadNearbyPostsForList: Background task started.");
-            // 실제 Firestore 쿼리 (예: 최근 100개)
-            // Geo-query 최적화가 필요할 수 있음
-            Task<QuerySnapshot> fetchTask = postRepository.getRecentPosts(100).get(); 
-
-            try {
-                // Firebase Task가 완료될 때까지 대기 (실제 프로덕션에서는 addOnSuccessListener 사용 권장)
-                // 이 방식은 워커 스레드를 블로킹하지만, ExecutorService 내에서는 괜찮을 수 있음.
-                // 더 나은 방식은 Task의 결과를 다음 단계로 넘기는 것임.
-                QuerySnapshot queryDocumentSnapshots = com.google.android.gms.tasks.Tasks.await(fetchTask);
-
-                Log.d(TAG_LOG, "[BG] Firestore fetch completed. Found " + queryDocumentSnapshots.size() + " documents.");
-                List<Post> fetchedPosts = new ArrayList<>();
-                    for (DocumentSnapshot document : queryDocumentSnapshots) {
-                    Post post = document.toObject(Post.class);
-                    if (post != null) {
-                        fetchedPosts.add(post);
+        // 위치 인덱스로 반경 내 포스트만 조회한 뒤, 거리 계산/정렬은 백그라운드에서 수행
+        postRepository.getPostsNearLocation(latitude, longitude, NEARBY_RADIUS_KM)
+                .continueWith(executorService, task -> {
+                    if (!task.isSuccessful()) {
+                        throw task.getException();
+                    }
+                    List<Map.Entry<Post, Float>> postsWithDistance = new ArrayList<>();
+                    for (Post post : task.getResult()) {
+                        LatLng postLatLng = getLatLngFromPost(post);
+                        if (postLatLng != null) {
+                            float[] results = new float[1];
+                            Location.distanceBetween(latitude, longitude,
+                                    postLatLng.latitude, postLatLng.longitude, results);
+                            postsWithDistance.add(new HashMap.SimpleEntry<>(post, results[0]));
                         }
                     }
-                Log.d(TAG_LOG, "[BG] Parsed " + fetchedPosts.size() + " posts.");
-
-                List<Map.Entry<Post, Float>> postsWithDistance = new ArrayList<>();
-                for (Post post : fetchedPosts) {
-                    LatLng postLatLng = getLatLngFromPost(post);
-                    if (postLatLng != null) {
-                        float[] results = new float[1];
-                        Location.distanceBetween(
-                                lastKnownLocation.getLatitude(), lastKnownLocation.getLongitude(),
-                                postLatLng.latitude, postLatLng.longitude,
-                                results);
-                        postsWithDistance.add(new HashMap.SimpleEntry<>(post, results[0]));
+                    Collections.sort(postsWithDistance, Comparator.comparing(Map.Entry::getValue));
+                    
+                    List<Post> sortedPosts = new ArrayList<>();
+                    for (Map.Entry<Post, Float> entry : postsWithDistance) {
+                        sortedPosts.add(entry.getKey());
                     }
-                }
-                Log.d(TAG_LOG, "[BG] Calculated distances for " + postsWithDistance.size() + " posts.");
-
-                Collections.sort(postsWithDistance, Comparator.comparing(Map.Entry::getValue));
-                Log.d(TAG_LOG, "[BG] Sorted posts by distance.");
-
-                List<Post> sortedPosts = new ArrayList<>();
-                for (Map.Entry<Post, Float> entry : postsWithDistance) {
-                    sortedPosts.add(entry.getKey());
-                }
-
-                mainThreadHandler.post(() -> {
+                    return sortedPosts;
+                })
+                .addOnSuccessListener(sortedPosts -> {
                     sortedPostListForList.clear();
                     sortedPostListForList.addAll(sortedPosts);
                     listAdapter.notifyDataSetChanged();
                     updateResultsVisibility(!sortedPostListForList.isEmpty());
                     showLoading(false);
-                    Log.d(TAG_LOG, "[Main] Updated list view with " + sortedPostListForList.size() + " sorted posts.");
-                });
-
-            } catch (Exception e) { // Tasks.await() 또는 기타 예외 처리
-                Log.e(TAG_LOG, "[BG] Error during background processing or Firestore fetch", e);
-                mainThreadHandler.post(() -> {
-                    Toast.makeText(getContext(), "주변 게시글 처리 오류", Toast.LENGTH_SHORT).show();
+                    Log.d(TAG_LOG, "loadNearbyPostsForList: Updated list view with " + sortedPostListForList.size() + " sorted posts.");
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG_LOG, "loadNearbyPostsForList: Error loading nearby posts", e);
+                    if (getContext() != null) {
+                        Toast.makeText(getContext(), "주변 게시글 처리 오류", Toast.LENGTH_SHORT).show();
+                    }
                     showLoading(false);
                     updateResultsVisibility(false);
                 });
-            }
-                });
     }
     
     private void updateResultsVisibility(boolean hasResults) {
@@ -603,7 +735,7 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
         if (showMap) {
              Log.d(TAG_LOG, "toggleMapView: Switched to Map view.");
              // 지도 데이터 로드가 필요한 경우 (예: 첫 로드 이후 다시 지도 탭 클릭 시)
-             if (googleMap != null && postListForMap.isEmpty()) { // 지도는 준비됐지만 마커가 없다면 로드 시도
+             if (googleMap != null && tileCache.isEmpty()) { // 지도는 준비됐지만 마커가 없다면 로드 시도
                  Log.d(TAG_LOG, "toggleMapView: Map view selected and markers are empty, trying to load map markers.");
                  getDeviceLocationAndLoadMapMarkers();
              }
@@ -619,28 +751,6 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
         }
     }
     
-    private void addMarkersToMap() {
-        Log.d(TAG_LOG, "addMarkersToMap: Starting. Posts available for map: " + postListForMap.size());
-        if (googleMap == null || clusterManager == null) {
-            Log.w(TAG_LOG, "addMarkersToMap: GoogleMap or ClusterManager is null. Cannot add markers.");
-            return;
-        }
-        clusterManager.clearItems();
-        int markerCount = 0;
-        for (Post post : postListForMap) {
-            LatLng position = getLatLngFromPost(post);
-            if (position != null) {
-                // Log.d(TAG_LOG, "addMarkersToMap: Adding marker for post " + post.getPostId() + " at " + position);
-                clusterManager.addItem(new PostClusterItem(position.latitude, position.longitude, post.getUserName(), post.getCaption(), post));
-                markerCount++;
-            } else {
-                 Log.d(TAG_LOG, "addMarkersToMap: Skipped post " + post.getPostId() + " due to invalid/null location.");
-            }
-        }
-        Log.d(TAG_LOG, "addMarkersToMap: Finished. Added " + markerCount + " markers.");
-        clusterManager.cluster();
-    }
-    
     private LatLng getLatLngFromPost(Post post) {
         if (post == null) { /*Log.d(TAG_LOG, "getLatLngFromPost: Post is null.");*/ return null; }
         if (post.getTags() == null || post.getTags().isEmpty()) { /*Log.d(TAG_LOG, "getLatLngFromPost: Post " + post.getPostId() + " has no tags.");*/ return null; }
@@ -699,7 +809,7 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
                 updateResultsVisibility(false);
                 if (googleMap != null) { // 기본 위치로 지도 로드
                      googleMap.moveCamera(CameraUpdateFactory.newLatLngZoom(new LatLng(37.5665, 126.9780), DEFAULT_ZOOM));
-                     loadPostsForMap(); 
+                     loadVisibleTiles(); 
                 }
             }
         }
@@ -748,7 +858,11 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
 
     public void clearResults() {
         Log.d(TAG_LOG, "clearResults: Clearing all post data and UI.");
-        if (postListForMap != null) postListForMap.clear();
+        tileCache.clear();
+        truncatedTiles.clear();
+        loadingTiles.clear();
+        mapItems.clear();
+        mapItemRefCounts.clear();
         if (sortedPostListForList != null) sortedPostListForList.clear();
         if (clusterManager != null) {
             clusterManager.clearItems();
@@ -761,31 +875,48 @@ public class PlaceSearchFragment extends Fragment implements OnMapReadyCallback
         showLoading(false);
     }
 
-    public void search(String query) {
+    /**
+     * 장소 이름으로 포스트 검색 (검색어가 없으면 주변 포스트 표시)
+     * @param query 검색어
+     * @param coordinator 탭 간에 공유되는 검색 조정자 (디바운스/최신 검색 우선/캐시)
+     * @param debounce 입력 중 검색이면 true
+     */
+    public void search(String query, SearchCoordinator coordinator, boolean debounce) {
         if (query == null || query.trim().isEmpty()) {
             Log.d(TAG_LOG, "search: Query is empty. Loading nearby posts for list view.");
+            coordinator.cancel();
             getDeviceLocationAndLoadNearbyPosts();
             return;
         }
-        Log.d(TAG_LOG, "search: Searching for place name: " + query.trim());
+        String trimmedQuery = query.trim();
+        Log.d(TAG_LOG, "search: Searching for place name: " + trimmedQuery);
         showLoading(true);
-        postRepository.searchPostsByLocationTagName(query.trim())
-            .addOnSuccessListener(posts -> {
-                Log.d(TAG_LOG, "Search successful. Found " + posts.size() + " posts for place: " + query.trim());
-                sortedPostListForList.clear();
-                // TODO: 검색 결과도 거리순 정렬 필요시 lastKnownLocation 사용
-                sortedPostListForList.addAll(posts); 
-                listAdapter.notifyDataSetChanged();
-                updateResultsVisibility(!sortedPostListForList.isEmpty());
-                showLoading(false);
-                // TODO: 검색 결과를 지도에도 반영할지 결정
-            })
-            .addOnFailureListener(e -> {
-                 Log.e(TAG_LOG, "Error searching posts by location tag name", e);
-                 showLoading(false);
-                 mainThreadHandler.post(() -> Toast.makeText(requireContext(), "장소 검색 오류", Toast.LENGTH_SHORT).show());
-                 updateResultsVisibility(false);
-            });
+        coordinator.search(SEARCH_SCOPE, trimmedQuery, debounce,
+                PostRepository.getInstance()::searchPostsByLocationTagName,
+                new SearchCoordinator.ResultCallback<List<Post>>() {
+                    @Override
+                    public void onResult(List<Post> posts) {
+                        if (listAdapter == null) return;
+                        Log.d(TAG_LOG, "Search successful. Found " + posts.size() + " posts for place: " + trimmedQuery);
+                        sortedPostListForList.clear();
+                        // TODO: 검색 결과도 거리순 정렬 필요시 lastKnownLocation 사용
+                        sortedPostListForList.addAll(posts);
+                        listAdapter.notifyDataSetChanged();
+                        updateResultsVisibility(!sortedPostListForList.isEmpty());
+                        showLoading(false);
+                        // TODO: 검색 결과를 지도에도 반영할지 결정
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e(TAG_LOG, "Error searching posts by location tag name", e);
+                        showLoading(false);
+                        if (getContext() != null) {
+                            Toast.makeText(requireContext(), "장소 검색 오류", Toast.LENGTH_SHORT).show();
+                        }
+                        updateResultsVisibility(false);
+                    }
+                });
     }
 
     private void moveToMyLocation() {
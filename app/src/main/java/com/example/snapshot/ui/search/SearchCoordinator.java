@@ -0,0 +1,87 @@
+package com.example.snapshot.ui.search;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+
+import com.google.android.gms.tasks.Task;
+
+/**
+ * 검색 탭(태그/사용자/장소)이 공유하는 검색 조정자
+ * - 입력 중에는 DEBOUNCE_MS 동안 입력이 멈춘 뒤에만 검색 실행
+ * - 마지막 검색만 결과를 전달 (앞선 요청의 늦은 응답은 버림)
+ * - 최근 검색 결과를 LRU 캐시에 보관해 같은 검색어/탭 재검색 시 바로 표시
+ */
+public class SearchCoordinator {
+    private static final long DEBOUNCE_MS = 300;
+    private static final int CACHE_SIZE = 30;
+
+    // 검색어로 결과를 가져오는 작업
+    public interface Fetcher<T> {
+        Task<T> fetch(String query);
+    }
+
+    // 검색 결과 콜백 (마지막 검색에 대해서만 메인 스레드에서 호출됨)
+    public interface ResultCallback<T> {
+        void onResult(T result);
+        void onError(Exception e);
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, Object> resultCache = new LruCache<>(CACHE_SIZE);
+    private Runnable pendingSearch;
+    private int generation = 0; // 검색 요청마다 증가, 응답 시 현재 값과 다르면 버림
+
+    /**
+     * 검색 실행
+     * @param scope 탭 구분 키 (캐시 키 접두어)
+     * @param query 정리된(trim) 검색어
+     * @param debounce true면 입력이 멈출 때까지 기다렸다가 실행
+     * @param fetcher 캐시에 없을 때 결과를 가져오는 작업
+     * @param callback 결과 콜백
+     */
+    public <T> void search(String scope, String query, boolean debounce,
+                           Fetcher<T> fetcher, ResultCallback<T> callback) {
+        cancel();
+        int requestGeneration = generation;
+        String cacheKey = scope + ":" + query;
+
+        @SuppressWarnings("unchecked")
+        T cached = (T) resultCache.get(cacheKey);
+        if (cached != null) {
+            callback.onResult(cached);
+            return;
+        }
+
+        Runnable run = () -> {
+            pendingSearch = null;
+            fetcher.fetch(query).addOnCompleteListener(task -> {
+                if (requestGeneration != generation) {
+                    return; // 더 최신 검색이 시작됨
+                }
+                if (task.isSuccessful() && task.getResult() != null) {
+                    resultCache.put(cacheKey, task.getResult());
+                    callback.onResult(task.getResult());
+                } else {
+                    callback.onError(task.getException());
+                }
+            });
+        };
+
+        if (debounce) {
+            pendingSearch = run;
+            mainHandler.postDelayed(run, DEBOUNCE_MS);
+        } else {
+            run.run();
+        }
+    }
+
+    // 대기 중인 검색을 취소하고 진행 중인 검색의 결과는 무시
+    public void cancel() {
+        if (pendingSearch != null) {
+            mainHandler.removeCallbacks(pendingSearch);
+            pendingSearch = null;
+        }
+        generation++;
+    }
+}
@@ -25,6 +25,7 @@ import com.example.snapshot.databinding.FragmentSearchBinding;
 import com.example.snapshot.model.Post;
 import com.example.snapshot.model.Tag;
 import com.example.snapshot.repository.PostRepository;
+import com.example.snapshot.repository.TagNameIndex;
 import com.example.snapshot.repository.TagRepository;
 import com.example.snapshot.repository.UserRepository;
 import com.example.snapshot.ui.home.TagAdapter;
@@ -58,6 +59,7 @@ public class SearchFragment extends Fragment {
     
     // 현재 검색어 저장
     private String currentQuery = "";
+    private final SearchCoordinator searchCoordinator = new SearchCoordinator(); // 탭 공용 디바운스/캐시
     private boolean shouldShowTrendingOnStart = false; // 시작 시 인기 태그 표시 여부 플래그
     
     @Override
@@ -85,6 +87,9 @@ public class SearchFragment extends Fragment {
         tagRepository = TagRepository.getInstance();
         userRepository = UserRepository.getInstance();
         
+        // 태그 부분 검색용 로컬 인덱스 미리 구축 (첫 검색 전에 준비되도록)
+        TagNameIndex.getInstance().start();
+        
         // 검색 결과 프래그먼트 초기화
         tagSearchFragment = new com.example.snapshot.ui.search.TagSearchFragment();
         userSearchFragment = new UserSearchFragment();
@@ -151,6 +156,9 @@ public class SearchFragment extends Fragment {
                 // 탭이 변경될 때, 현재 검색어가 없다면 인기 태그 상태 업데이트
                 if (currentQuery.isEmpty()) {
                     showTrendingTags(true); 
+                } else {
+                    // 새 탭에서 같은 검색어로 검색 (이미 검색한 적이 있으면 캐시에서 바로 표시)
+                    performSearch(currentQuery, false);
                 }
             }
         });
@@ -162,7 +170,7 @@ public class SearchFragment extends Fragment {
             public boolean onQueryTextSubmit(String query) {
                 if (!query.isEmpty()) {
                     currentQuery = query;
-                    performSearch(query);
+                    performSearch(query, false);
                 }
                 return true;
             }
@@ -170,12 +178,15 @@ public class SearchFragment extends Fragment {
             @Override
             public boolean onQueryTextChange(String newText) {
                 // 검색어가 비어있으면 인기 태그 다시 표시
-                if (newText.isEmpty()) {
+                if (newText.trim().isEmpty()) {
                     currentQuery = "";
+                    searchCoordinator.cancel(); // 대기/진행 중인 검색 결과 무시
                     showTrendingTags(true); // 인기 태그 표시
                     clearSearchResults(); // 이전 검색 결과 지우기 (선택적)
+                    return false;
                 }
-                // 실시간 검색은 구현하지 않음
+                // 실시간 검색 - 입력이 잠시 멈춘 뒤에만 검색 실행
+                performSearch(newText, true);
                 return false;
             }
         });
@@ -217,48 +228,46 @@ public class SearchFragment extends Fragment {
                 });
     }
     
-    private void performSearch(String query) {
+    /**
+     * 현재 탭에서 검색 실행
+     * @param query 검색어
+     * @param debounce 입력 중 검색이면 true (입력이 멈출 때까지 대기)
+     */
+    private void performSearch(String query, boolean debounce) {
         if (query == null || query.trim().isEmpty()) {
             // 검색어가 없으면 인기 태그 표시
             showTrendingTags(true);
             return;
         }
         
+        currentQuery = query.trim();
+        
         // 검색 시작 시 인기 태그 숨기기
         showTrendingTags(false);
         
-        currentQuery = query.trim();
         int currentTab = binding.viewPager.getCurrentItem();
-        showLoading(true);
         
-        try {
-            // 각 탭에 따라 저장된 프래그먼트 인스턴스를 사용
-            switch (currentTab) {
-                case 0: // 태그 검색
-                    if (tagSearchFragment != null) {
-                        tagSearchFragment.search(currentQuery);
-                    }
-                    break;
-                case 1: // 사용자 검색
-                    if (userSearchFragment != null) {
-                        userSearchFragment.search(currentQuery);
-                    }
-                    break;
-                case 2: // 장소 검색
-                    if (placeSearchFragment != null) {
-                        placeSearchFragment.search(currentQuery);
-                    }
-                    break;
-            }
-            
-            // 다중 태그 검색 버튼 표시
-            binding.btnMultiTagSearch.setVisibility(View.VISIBLE);
-            
-        } catch (Exception e) {
-            Toast.makeText(requireContext(), "검색 중 오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-        } finally {
-            showLoading(false);
+        // 각 탭에 따라 저장된 프래그먼트 인스턴스를 사용 (로딩 표시는 각 탭이 담당)
+        switch (currentTab) {
+            case 0: // 태그 검색
+                if (tagSearchFragment != null) {
+                    tagSearchFragment.search(currentQuery, searchCoordinator, debounce);
+                }
+                break;
+            case 1: // 사용자 검색
+                if (userSearchFragment != null) {
+                    userSearchFragment.search(currentQuery, searchCoordinator, debounce);
+                }
+                break;
+            case 2: // 장소 검색
+                if (placeSearchFragment != null) {
+                    placeSearchFragment.search(currentQuery, searchCoordinator, debounce);
+                }
+                break;
         }
+        
+        // 다중 태그 검색 버튼 표시
+        binding.btnMultiTagSearch.setVisibility(View.VISIBLE);
     }
     
     private void navigateToTagDetail(Tag tag) {
@@ -275,6 +284,7 @@ public class SearchFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        searchCoordinator.cancel();
         binding = null;
     }
     
@@ -603,6 +613,8 @@ public class SearchFragment extends Fragment {
             return;
         }
         
+        // 진행 중인 검색어 검색 결과가 다중 태그 결과를 덮어쓰지 않도록 취소
+        searchCoordinator.cancel();
         showLoading(true);
         
         try {
@@ -34,6 +34,8 @@ import java.util.List;
 
 public class TagSearchFragment extends Fragment {
 
+    private static final String SEARCH_SCOPE = "tag";
+
     private RecyclerView recyclerView;
     private ProgressBar progressBar;
     private TextView tvNoResults;
@@ -112,33 +114,34 @@ public class TagSearchFragment extends Fragment {
         });
     }
 
-    public void search(String query) {
+    /**
+     * 태그 이름 일부로 포스트 검색
+     * @param query 검색어
+     * @param coordinator 탭 간에 공유되는 검색 조정자 (디바운스/최신 검색 우선/캐시)
+     * @param debounce 입력 중 검색이면 true
+     */
+    public void search(String query, SearchCoordinator coordinator, boolean debounce) {
         if (query == null || query.trim().isEmpty()) {
             clearListAndShowInitialMessage();
             return;
         }
-        String trimmedQuery = query.trim();
         showLoading(true);
-        try {
-            // 태그 이름 일부로 포스트 검색
-            postRepository.searchPostsByTagPartial(trimmedQuery)
-                    .addOnSuccessListener(posts -> {
-                        postList.clear();
-                        postList.addAll(posts);
-                        adapter.notifyDataSetChanged();
-                        showInitialOrNoResultsState(postList.isEmpty());
-                        showLoading(false);
-                    })
-                    .addOnFailureListener(e -> {
+        coordinator.search(SEARCH_SCOPE, query.trim(), debounce,
+                PostRepository.getInstance()::searchPostsByTagPartial,
+                new SearchCoordinator.ResultCallback<List<Post>>() {
+                    @Override
+                    public void onResult(List<Post> posts) {
+                        displayPostResults(posts);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
                         showLoading(false);
+                        if (getContext() == null) return;
                         Toast.makeText(requireContext(), "게시글 검색 중 오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
                         showInitialOrNoResultsState(true);
-                    });
-        } catch (Exception e) {
-            showLoading(false);
-            Toast.makeText(requireContext(), "게시글 검색 중 오류가 발생했습니다: " + e.getMessage(), Toast.LENGTH_SHORT).show();
-            showInitialOrNoResultsState(true);
-        }
+                    }
+                });
     }
 
     private void navigateToPostDetail(Post post) {
@@ -159,7 +162,7 @@ public class TagSearchFragment extends Fragment {
      * @param posts 표시할 게시글 목록
      */
     public void displayPostResults(List<Post> posts) {
-        if (posts == null) {
+        if (posts == null || adapter == null) {
             return;
         }
         
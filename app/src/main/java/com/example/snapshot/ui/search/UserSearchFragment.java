@@ -19,14 +19,18 @@ import com.example.snapshot.model.User;
 import com.example.snapshot.repository.UserRepository;
 import com.example.snapshot.ui.profile.ProfileActivity;
 import com.example.snapshot.ui.profile.UserAdapter;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
 
 public class UserSearchFragment extends Fragment {
     
+    private static final String SEARCH_SCOPE = "user";
+    
     private UserRepository userRepository;
     private List<User> searchResults = new ArrayList<>();
     private UserAdapter adapter;
@@ -54,57 +58,72 @@ public class UserSearchFragment extends Fragment {
         return view;
     }
     
-    public void search(String query) {
-        if (userRepository == null) {
-            userRepository = UserRepository.getInstance();
+    /**
+     * 사용자 검색 - 이름으로 검색하고 결과가 없으면 이메일로도 검색
+     * @param query 검색어
+     * @param coordinator 탭 간에 공유되는 검색 조정자 (디바운스/최신 검색 우선/캐시)
+     * @param debounce 입력 중 검색이면 true
+     */
+    public void search(String query, SearchCoordinator coordinator, boolean debounce) {
+        if (progressBar == null) {
+            return; // 아직 뷰가 생성되지 않음
         }
         
         progressBar.setVisibility(View.VISIBLE);
         emptyView.setVisibility(View.GONE);
         
-        // 사용자 검색 - 이름으로 검색
-        Query nameQuery = userRepository.searchUsersByName(query);
-        
-        nameQuery.get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    searchResults.clear();
-                    
-                    for (DocumentSnapshot document : queryDocumentSnapshots) {
-                        User user = document.toObject(User.class);
-                        if (user != null) {
-                            searchResults.add(user);
+        coordinator.search(SEARCH_SCOPE, query, debounce, this::fetchUsers,
+                new SearchCoordinator.ResultCallback<List<User>>() {
+                    @Override
+                    public void onResult(List<User> users) {
+                        searchResults.clear();
+                        searchResults.addAll(users);
+                        updateSearchResultsView();
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        progressBar.setVisibility(View.GONE);
+                        emptyView.setVisibility(View.VISIBLE);
+                        if (getContext() != null) {
+                            Toast.makeText(requireContext(), R.string.error_network, Toast.LENGTH_SHORT).show();
                         }
                     }
-                    
-                    // 검색 결과가 없으면 이메일로도 검색
-                    if (searchResults.isEmpty()) {
-                        Query emailQuery = userRepository.searchUsersByEmail(query);
-                        emailQuery.get()
-                                .addOnSuccessListener(emailResults -> {
-                                    for (DocumentSnapshot document : emailResults) {
-                                        User user = document.toObject(User.class);
-                                        if (user != null) {
-                                            searchResults.add(user);
-                                        }
-                                    }
-                                    
-                                    updateSearchResultsView();
-                                })
-                                .addOnFailureListener(e -> {
-                                    updateSearchResultsView();
-                                    Toast.makeText(requireContext(), R.string.error_network, Toast.LENGTH_SHORT).show();
-                                });
-                    } else {
-                        updateSearchResultsView();
+                });
+    }
+    
+    private Task<List<User>> fetchUsers(String query) {
+        return userRepository.searchUsersByName(query).get()
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        return Tasks.forException(task.getException());
                     }
-                })
-                .addOnFailureListener(e -> {
-                    progressBar.setVisibility(View.GONE);
-                    emptyView.setVisibility(View.VISIBLE);
-                    Toast.makeText(requireContext(), R.string.error_network, Toast.LENGTH_SHORT).show();
+                    List<User> users = toUsers(task.getResult());
+                    if (!users.isEmpty()) {
+                        return Tasks.forResult(users);
+                    }
+                    // 검색 결과가 없으면 이메일로도 검색
+                    return userRepository.searchUsersByEmail(query).get()
+                            .continueWith(emailTask -> {
+                                if (!emailTask.isSuccessful()) {
+                                    throw emailTask.getException();
+                                }
+                                return toUsers(emailTask.getResult());
+                            });
                 });
     }
     
+    private List<User> toUsers(QuerySnapshot snapshot) {
+        List<User> users = new ArrayList<>();
+        for (DocumentSnapshot document : snapshot) {
+            User user = document.toObject(User.class);
+            if (user != null) {
+                users.add(user);
+            }
+        }
+        return users;
+    }
+    
     private void updateSearchResultsView() {
         progressBar.setVisibility(View.GONE);
         
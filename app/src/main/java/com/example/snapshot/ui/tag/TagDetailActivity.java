@@ -27,7 +27,6 @@ import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.google.android.material.tabs.TabLayout;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.GeoPoint;
 import com.google.firebase.firestore.Query;
 
@@ -416,16 +415,10 @@ public class TagDetailActivity extends AppCompatActivity implements OnMapReadyCa
         showLoading(true);
         
         postRepository.getPostsByTagId(tagId)
-                .addOnSuccessListener(queryDocumentSnapshots -> {
+                .addOnSuccessListener(posts -> {
                     showLoading(false);
                     postList.clear();
-                    
-                    for (DocumentSnapshot document : queryDocumentSnapshots.getDocuments()) {
-                        Post post = document.toObject(Post.class);
-                        if (post != null) {
-                            postList.add(post);
-                        }
-                    }
+                    postList.addAll(posts);
                     
                     postAdapter.notifyDataSetChanged();
                     
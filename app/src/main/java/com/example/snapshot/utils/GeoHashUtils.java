@@ -0,0 +1,102 @@
+package com.example.snapshot.utils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * geohash 계산 유틸리티 클래스
+ * 지도 화면 영역을 덮는 geohash 타일 목록을 구해 타일 단위로 게시물을 조회/캐시할 때 사용
+ * (GeoFirestore가 문서의 "g" 필드에 저장하는 것과 같은 base32 geohash)
+ */
+public class GeoHashUtils {
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+    public static final int GEOFIRESTORE_PRECISION = 10; // GeoFirestore가 "g" 필드에 저장하는 geohash 길이
+
+    private GeoHashUtils() {
+    }
+
+    /**
+     * 좌표를 geohash 문자열로 변환합니다.
+     * @param latitude 위도
+     * @param longitude 경도
+     * @param precision geohash 길이
+     * @return geohash 문자열
+     */
+    public static String encode(double latitude, double longitude, int precision) {
+        double minLat = -90, maxLat = 90;
+        double minLng = -180, maxLng = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true; // 짝수 비트는 경도, 홀수 비트는 위도
+        int bit = 0;
+        int value = 0;
+
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLng + maxLng) / 2;
+                if (longitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLng = mid;
+                } else {
+                    value = value << 1;
+                    maxLng = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    value = (value << 1) | 1;
+                    minLat = mid;
+                } else {
+                    value = value << 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(value));
+                bit = 0;
+                value = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * 영역을 덮는 geohash 타일 목록을 구합니다.
+     * @param south 남쪽 위도
+     * @param west 서쪽 경도
+     * @param north 북쪽 위도
+     * @param east 동쪽 경도 (날짜 변경선을 넘으면 west보다 작을 수 있음)
+     * @param precision geohash 길이
+     * @return 영역과 겹치는 타일 목록
+     */
+    public static Set<String> coveringTiles(double south, double west, double north, double east, int precision) {
+        int bits = precision * 5;
+        double cellLat = 180.0 / (1L << (bits / 2));
+        double cellLng = 360.0 / (1L << ((bits + 1) / 2));
+        if (east < west) {
+            east += 360; // 날짜 변경선을 넘는 영역
+        }
+
+        Set<String> tiles = new LinkedHashSet<>();
+        for (double lat = snap(south, -90, cellLat); lat <= north; lat += cellLat) {
+            for (double lng = snap(west, -180, cellLng); lng <= east; lng += cellLng) {
+                double centerLat = Math.min(lat + cellLat / 2, 90);
+                double centerLng = normalizeLongitude(lng + cellLng / 2);
+                tiles.add(encode(centerLat, centerLng, precision));
+            }
+        }
+        return tiles;
+    }
+
+    // value가 속한 셀의 시작 좌표
+    private static double snap(double value, double origin, double cellSize) {
+        return origin + Math.floor((value - origin) / cellSize) * cellSize;
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        while (longitude >= 180) longitude -= 360;
+        while (longitude < -180) longitude += 360;
+        return longitude;
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.snapshot.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.ImageDecoder;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+
+import com.example.snapshot.model.Post;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 게시물 이미지 준비 유틸리티 클래스
+ * 원본 사진(12MP 이상)을 전부 디코딩하지 않고 목표 크기에 맞춰 축소 디코딩하며,
+ * 모든 작업은 백그라운드 스레드에서 수행됩니다.
+ * 준비된 비트맵 하나를 업로드와 AI 태그 추천이 함께 사용합니다.
+ */
+public class ImagePreparer {
+    public static final int MAX_DIMENSION = 1600; // 긴 변 기준 최대 크기 (px)
+    public static final int FEED_DIMENSION = Post.FEED_IMAGE_SIZE; // 피드용 이미지 긴 변 크기 (px)
+    public static final int THUMB_DIMENSION = Post.THUMBNAIL_SIZE; // 그리드/지도 마커용 썸네일 긴 변 크기 (px)
+    public static final int JPEG_QUALITY = 80;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private ImagePreparer() {
+    }
+
+    /**
+     * 이미지를 긴 변이 maxDimension 이하가 되도록 축소 디코딩합니다. (EXIF 회전 반영)
+     * @param context 컨텍스트
+     * @param uri 이미지 Uri
+     * @param maxDimension 긴 변 최대 크기 (px)
+     * @return 축소된 비트맵 Task
+     */
+    public static Task<Bitmap> decode(Context context, Uri uri, int maxDimension) {
+        ContentResolver resolver = context.getApplicationContext().getContentResolver();
+        return Tasks.call(executor, () -> {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.P) {
+                return decodeWithImageDecoder(resolver, uri, maxDimension);
+            }
+            return decodeWithBitmapFactory(resolver, uri, maxDimension);
+        });
+    }
+
+    /**
+     * 비트맵 하나로 업로드용 해상도별 JPEG(원본/피드/썸네일)를 만듭니다.
+     * @param bitmap 준비된 비트맵 (긴 변이 MAX_DIMENSION 이하)
+     * @return 해상도별 JPEG 바이트 Task
+     */
+    public static Task<Renditions> compressRenditions(Bitmap bitmap) {
+        return Tasks.call(executor, () -> new Renditions(
+                toJpeg(bitmap),
+                toJpeg(scaleDown(bitmap, FEED_DIMENSION)),
+                toJpeg(scaleDown(bitmap, THUMB_DIMENSION))));
+    }
+
+    /**
+     * 업로드할 해상도별 JPEG 데이터
+     */
+    public static class Renditions {
+        public final byte[] full;
+        public final byte[] feed;
+        public final byte[] thumb;
+
+        Renditions(byte[] full, byte[] feed, byte[] thumb) {
+            this.full = full;
+            this.feed = feed;
+            this.thumb = thumb;
+        }
+    }
+
+    private static byte[] toJpeg(Bitmap bitmap) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * 긴 변이 maxDimension을 넘을 때만 축소합니다. (이미 작으면 원본 그대로 반환)
+     * @param bitmap 원본 비트맵
+     * @param maxDimension 긴 변 최대 크기 (px)
+     * @return 축소된 비트맵 또는 원본
+     */
+    public static Bitmap scaleDown(Bitmap bitmap, int maxDimension) {
+        int longestSide = Math.max(bitmap.getWidth(), bitmap.getHeight());
+        if (longestSide <= maxDimension) {
+            return bitmap;
+        }
+        float scale = (float) maxDimension / longestSide;
+        return Bitmap.createScaledBitmap(bitmap,
+                Math.max(1, Math.round(bitmap.getWidth() * scale)),
+                Math.max(1, Math.round(bitmap.getHeight() * scale)),
+                true);
+    }
+
+    // API 28 이상: ImageDecoder가 목표 크기 디코딩과 EXIF 회전을 모두 처리
+    private static Bitmap decodeWithImageDecoder(ContentResolver resolver, Uri uri, int maxDimension) throws IOException {
+        ImageDecoder.Source source = ImageDecoder.createSource(resolver, uri);
+        return ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+            int width = info.getSize().getWidth();
+            int height = info.getSize().getHeight();
+            float scale = Math.min(1f, (float) maxDimension / Math.max(width, height));
+            decoder.setTargetSize(Math.max(1, Math.round(width * scale)), Math.max(1, Math.round(height * scale)));
+            decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE); // 압축/Gemini 전송을 위해 소프트웨어 비트맵 사용
+        });
+    }
+
+    // API 28 미만: 크기만 먼저 읽고 inSampleSize로 축소 디코딩 후 EXIF 회전 적용
+    private static Bitmap decodeWithBitmapFactory(ContentResolver resolver, Uri uri, int maxDimension) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("이미지 크기를 읽을 수 없습니다: " + uri);
+        }
+
+        // 목표 크기 이상을 유지하는 가장 큰 2의 거듭제곱 배율
+        int sampleSize = 1;
+        int longestSide = Math.max(bounds.outWidth, bounds.outHeight);
+        while (longestSide / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        Bitmap bitmap;
+        try (InputStream in = resolver.openInputStream(uri)) {
+            bitmap = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (bitmap == null) {
+            throw new IOException("이미지를 디코딩할 수 없습니다: " + uri);
+        }
+
+        // 남은 배율은 정확한 크기로 조정
+        float scale = Math.min(1f, (float) maxDimension / Math.max(bitmap.getWidth(), bitmap.getHeight()));
+        Matrix matrix = new Matrix();
+        matrix.postScale(scale, scale);
+        matrix.postRotate(readExifRotation(resolver, uri));
+        if (!matrix.isIdentity()) {
+            Bitmap transformed = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+            if (transformed != bitmap) {
+                bitmap.recycle();
+            }
+            bitmap = transformed;
+        }
+        return bitmap;
+    }
+
+    private static int readExifRotation(ContentResolver resolver, Uri uri) {
+        try (InputStream in = resolver.openInputStream(uri)) {
+            if (in == null) return 0;
+            int orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+            switch (orientation) {
+                case ExifInterface.ORIENTATION_ROTATE_90:
+                    return 90;
+                case ExifInterface.ORIENTATION_ROTATE_180:
+                    return 180;
+                case ExifInterface.ORIENTATION_ROTATE_270:
+                    return 270;
+                default:
+                    return 0;
+            }
+        } catch (IOException e) {
+            return 0; // EXIF 정보가 없으면 회전하지 않음
+        }
+    }
+}